@@ -0,0 +1,71 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.markers;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarlint.eclipse.core.internal.tracking.SyntheticIssues;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+
+/**
+ * Encoding and decoding of the flows of one issue, as stored in markers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowCodecBenchmark {
+
+  @Param({"1", "5", "20"})
+  public int flowsPerIssue;
+
+  private List<Flow> flows;
+  private String encodedFlows;
+
+  @Setup
+  public void setUp() {
+    flows = new SyntheticIssues(42).flows(flowsPerIssue, 10);
+    encodedFlows = FlowCodec.encode(flows);
+  }
+
+  @Benchmark
+  public String encode() {
+    return FlowCodec.encode(flows);
+  }
+
+  @Benchmark
+  public List<Flow> decode() {
+    return FlowCodec.decode(encodedFlows);
+  }
+
+}
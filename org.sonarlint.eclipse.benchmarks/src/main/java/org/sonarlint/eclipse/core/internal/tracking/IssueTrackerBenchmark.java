@@ -0,0 +1,113 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+/**
+ * Tracking of all files of a project analyzed again, with the cache backed by a real issue store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IssueTrackerBenchmark {
+
+  private static final long CACHE_MAX_WEIGHT = 64L * 1024 * 1024;
+
+  @Param({"10", "100", "1000"})
+  public int filesPerProject;
+
+  @Param({"10", "100"})
+  public int issuesPerFile;
+
+  @Param({"0", "5"})
+  public int flowsPerIssue;
+
+  private Path storeDir;
+  private IssueStore store;
+  private PersistentIssueTrackerCache cache;
+  private IssueTracker issueTracker;
+  private final List<ISonarLintFile> files = new ArrayList<>();
+  private final List<List<Trackable>> rawIssues = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    storeDir = Files.createTempDirectory("sonarlint-bench");
+    ISonarLintProject project = new StubProject();
+    store = new IssueStore(storeDir, project);
+    cache = new PersistentIssueTrackerCache(store, () -> CACHE_MAX_WEIGHT);
+    issueTracker = new IssueTracker(cache);
+
+    SyntheticIssues generator = new SyntheticIssues(42);
+    for (int i = 0; i < filesPerProject; i++) {
+      ISonarLintFile file = new StubFile(project, "src/main/java/org/example/File" + i + ".java");
+      files.add(file);
+      List<Trackable> previous = generator.issues(issuesPerFile, flowsPerIssue);
+      issueTracker.updateCache(file, previous);
+      rawIssues.add(generator.evolve(previous, 2, 0.1));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    issueTracker.shutdown();
+    FileUtils.deleteRecursively(storeDir);
+  }
+
+  @Benchmark
+  public void matchAndTrackAsNew(Blackhole blackhole) {
+    for (int i = 0; i < files.size(); i++) {
+      Collection<Trackable> tracked = issueTracker.matchAndTrackAsNew(files.get(i), rawIssues.get(i));
+      blackhole.consume(tracked);
+    }
+  }
+
+  @Benchmark
+  public void flushAll() {
+    cache.flushAll();
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+/**
+ * Updates and loading of the index used by the file per key layout of the issue store.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringStoreIndexBenchmark {
+
+  @Param({"100", "1000", "10000"})
+  public int indexSize;
+
+  private Path storeDir;
+  private StringStoreIndex index;
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    storeDir = Files.createTempDirectory("sonarlint-bench");
+    index = new StringStoreIndex(storeDir);
+    for (int i = 0; i < indexSize; i++) {
+      index.save(key(i), storeDir.resolve(path(i)));
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    FileUtils.deleteRecursively(storeDir);
+  }
+
+  private static String key(int i) {
+    return "src/main/java/org/example/File" + i + ".java";
+  }
+
+  private static String path(int i) {
+    return String.format("%02x/%08x", i & 0xff, i);
+  }
+
+  @Benchmark
+  public void deleteAndSave() {
+    next = (next + 7919) % indexSize;
+    index.delete(key(next));
+    index.save(key(next), storeDir.resolve(path(next)));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 2)
+  @Measurement(iterations = 5)
+  public Collection<String> load() {
+    return new StringStoreIndex(storeDir).keys();
+  }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.IDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * File without Eclipse resource, only identified by its path. Hand-written, to keep mocking overhead out of measured code.
+ */
+class StubFile implements ISonarLintFile {
+
+  private final ISonarLintProject project;
+  private final String relativePath;
+
+  StubFile(ISonarLintProject project, String relativePath) {
+    this.project = project;
+    this.relativePath = relativePath;
+  }
+
+  @Override
+  public ISonarLintProject getProject() {
+    return project;
+  }
+
+  @Override
+  public String getName() {
+    return relativePath.substring(relativePath.lastIndexOf('/') + 1);
+  }
+
+  @Override
+  public IResource getResource() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public IDocument getDocument() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public String getProjectRelativePath() {
+    return relativePath;
+  }
+
+  @Override
+  public Charset getCharset() {
+    return StandardCharsets.UTF_8;
+  }
+
+}
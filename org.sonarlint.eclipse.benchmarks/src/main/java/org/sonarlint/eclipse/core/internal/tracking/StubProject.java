@@ -0,0 +1,64 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import org.eclipse.core.resources.IResource;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * Project without Eclipse resource, in which all files exist. Hand-written, to keep mocking overhead out of measured code.
+ */
+class StubProject implements ISonarLintProject {
+
+  @Override
+  public String getName() {
+    return "bench";
+  }
+
+  @Override
+  public IResource getResource() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public Path getWorkingDir() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public boolean exists(String relativeFilePath) {
+    return true;
+  }
+
+  @Override
+  public Object getObjectToNotify() {
+    return this;
+  }
+
+  @Override
+  public Collection<ISonarLintFile> files() {
+    return Collections.emptyList();
+  }
+
+}
@@ -0,0 +1,254 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
+
+/**
+ * Deterministic generator of issues looking like the ones reported by analyzers.
+ */
+public class SyntheticIssues {
+
+  private static final int RULE_COUNT = 50;
+  private static final int LOCATIONS_PER_FLOW = 5;
+
+  private final Random random;
+
+  public SyntheticIssues(long seed) {
+    this.random = new Random(seed);
+  }
+
+  public List<Trackable> issues(int count, int flowsPerIssue) {
+    List<Trackable> issues = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      int line = 1 + random.nextInt(Math.max(1, count * 5));
+      int ruleIndex = random.nextInt(RULE_COUNT);
+      issues.add(new SyntheticTrackable("java:S" + (100 + ruleIndex), "Message of rule " + ruleIndex + " at line " + line, line, random.nextInt(),
+        random.nextInt(), null, flows(flowsPerIssue, line)));
+    }
+    return issues;
+  }
+
+  /**
+   * Same issues, moved down by some lines as if code was inserted above, with a fraction of them fixed and replaced by new ones.
+   */
+  public List<Trackable> evolve(List<Trackable> issues, int lineShift, double changedRatio) {
+    List<Trackable> evolved = new ArrayList<>(issues.size());
+    for (Trackable issue : issues) {
+      if (random.nextDouble() < changedRatio) {
+        evolved.addAll(issues(1, issue.getFlows().size()));
+      } else {
+        evolved.add(new SyntheticTrackable(issue.getRuleKey(), issue.getMessage(), issue.getLine() + lineShift, issue.getLineHash(), issue.getTextRangeHash(),
+          null, issue.getFlows()));
+      }
+    }
+    return evolved;
+  }
+
+  /**
+   * Same issues, as returned by the server: with an issue key, and without text range hash.
+   */
+  public List<Trackable> serverIssues(List<Trackable> issues) {
+    List<Trackable> serverIssues = new ArrayList<>(issues.size());
+    int key = 0;
+    for (Trackable issue : issues) {
+      serverIssues.add(new SyntheticTrackable(issue.getRuleKey(), issue.getMessage(), issue.getLine(), issue.getLineHash(), null, "AX-" + key++,
+        Collections.emptyList()));
+    }
+    return serverIssues;
+  }
+
+  public List<Flow> flows(int count, int line) {
+    List<Flow> flows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      List<IssueLocation> locations = new ArrayList<>(LOCATIONS_PER_FLOW);
+      for (int j = 0; j < LOCATIONS_PER_FLOW; j++) {
+        int locationLine = line + random.nextInt(20);
+        locations.add(new SyntheticLocation("Secondary location " + j + " of flow " + i, locationLine, random.nextInt(40), locationLine, 40 + random.nextInt(40)));
+      }
+      flows.add(() -> locations);
+    }
+    return flows;
+  }
+
+  static class SyntheticTrackable implements Trackable {
+    private final String ruleKey;
+    private final String message;
+    private final Integer line;
+    private final Integer lineHash;
+    private final Integer textRangeHash;
+    private final String serverIssueKey;
+    private final List<Flow> flows;
+    private Long markerId;
+
+    SyntheticTrackable(String ruleKey, String message, Integer line, Integer lineHash, Integer textRangeHash, String serverIssueKey, List<Flow> flows) {
+      this.ruleKey = ruleKey;
+      this.message = message;
+      this.line = line;
+      this.lineHash = lineHash;
+      this.textRangeHash = textRangeHash;
+      this.serverIssueKey = serverIssueKey;
+      this.flows = flows;
+    }
+
+    @Override
+    public Long getMarkerId() {
+      return markerId;
+    }
+
+    @Override
+    public void setMarkerId(Long id) {
+      this.markerId = id;
+    }
+
+    @Override
+    public Integer getLine() {
+      return line;
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+
+    @Override
+    public Integer getTextRangeHash() {
+      return textRangeHash;
+    }
+
+    @Override
+    public Integer getLineHash() {
+      return lineHash;
+    }
+
+    @Override
+    public String getRuleKey() {
+      return ruleKey;
+    }
+
+    @Override
+    public String getRuleName() {
+      return ruleKey;
+    }
+
+    @Override
+    public Long getCreationDate() {
+      return null;
+    }
+
+    @Override
+    public String getServerIssueKey() {
+      return serverIssueKey;
+    }
+
+    @Override
+    public boolean isResolved() {
+      return false;
+    }
+
+    @Override
+    public String getAssignee() {
+      return "";
+    }
+
+    @Override
+    public String getSeverity() {
+      return "MAJOR";
+    }
+
+    @Override
+    public String getRawSeverity() {
+      return "MAJOR";
+    }
+
+    @Override
+    public String getType() {
+      return "CODE_SMELL";
+    }
+
+    @Override
+    public String getRawType() {
+      return "CODE_SMELL";
+    }
+
+    @Override
+    public TextRange getTextRange() {
+      return TextRange.get(line, 0, line, 10);
+    }
+
+    @Override
+    public List<Flow> getFlows() {
+      return flows;
+    }
+  }
+
+  static class SyntheticLocation implements IssueLocation {
+    private final String message;
+    private final int startLine;
+    private final int startLineOffset;
+    private final int endLine;
+    private final int endLineOffset;
+
+    SyntheticLocation(String message, int startLine, int startLineOffset, int endLine, int endLineOffset) {
+      this.message = message;
+      this.startLine = startLine;
+      this.startLineOffset = startLineOffset;
+      this.endLine = endLine;
+      this.endLineOffset = endLineOffset;
+    }
+
+    @Override
+    public ClientInputFile getInputFile() {
+      return null;
+    }
+
+    @Override
+    public Integer getStartLine() {
+      return startLine;
+    }
+
+    @Override
+    public Integer getStartLineOffset() {
+      return startLineOffset;
+    }
+
+    @Override
+    public Integer getEndLine() {
+      return endLine;
+    }
+
+    @Override
+    public Integer getEndLineOffset() {
+      return endLineOffset;
+    }
+
+    @Override
+    public String getMessage() {
+      return message;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Matching of the issues of a single file, against the previous analysis and against server issues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackerBenchmark {
+
+  @Param({"10", "100", "1000"})
+  public int issuesPerFile;
+
+  @Param({"0.0", "0.2"})
+  public double changedRatio;
+
+  private List<Trackable> previousIssues;
+  private List<Trackable> rawIssues;
+  private List<Trackable> serverIssues;
+
+  @Setup
+  public void setUp() {
+    SyntheticIssues generator = new SyntheticIssues(42);
+    previousIssues = generator.issues(issuesPerFile, 0);
+    rawIssues = generator.evolve(previousIssues, 3, changedRatio);
+    serverIssues = generator.serverIssues(generator.evolve(previousIssues, 0, changedRatio));
+  }
+
+  @Benchmark
+  public Tracking<Trackable, Trackable> trackRaw() {
+    return new Tracker<>().trackRaw(() -> rawIssues, () -> previousIssues);
+  }
+
+  @Benchmark
+  public Tracking<Trackable, Trackable> trackServer() {
+    return new Tracker<>().trackServer(() -> rawIssues, () -> serverIssues);
+  }
+
+}
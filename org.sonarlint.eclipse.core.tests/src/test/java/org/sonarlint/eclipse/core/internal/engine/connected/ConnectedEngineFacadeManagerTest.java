@@ -21,6 +21,7 @@ package org.sonarlint.eclipse.core.internal.engine.connected;
 
 import java.util.ArrayList;
 import java.util.List;
+import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.equinox.security.storage.ISecurePreferences;
@@ -28,6 +29,11 @@ import org.eclipse.equinox.security.storage.SecurePreferencesFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -41,7 +47,7 @@ import static org.sonarlint.eclipse.core.internal.engine.connected.ConnectedEngi
 /**
  * To have this test pass when launched from the IDE, you have to set -pluginCustomization argument (see pom.xml).
  */
-public class ConnectedEngineFacadeManagerTest {
+public class ConnectedEngineFacadeManagerTest extends SonarTestCase {
 
   private static final ISecurePreferences ROOT_SECURE = SecurePreferencesFactory.getDefault().node(SonarLintCorePlugin.PLUGIN_ID);
   private static final IEclipsePreferences ROOT = InstanceScope.INSTANCE.getNode(SonarLintCorePlugin.PLUGIN_ID);
@@ -244,6 +250,30 @@ public class ConnectedEngineFacadeManagerTest {
     assertThat(server.getHost()).isEqualTo("http://foo:9000");
   }
 
+  @Test
+  public void boundProjectsAreIndexedByConnectionAndProjectKey() throws Exception {
+    IProject project = importEclipseProject("SimpleNonJdtProject");
+    ISonarLintProject slProject = new DefaultSonarLintProjectAdapter(project);
+    assertThat(manager.getBoundProjects("myServer")).isEmpty();
+
+    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfigForUpdate(slProject);
+    config.setProjectBinding(new EclipseProjectBinding("myServer", "myProjectKey", "", ""));
+    SonarLintCorePlugin.saveConfig(slProject, config);
+    assertThat(manager.getBoundProjects("myServer")).containsExactly(slProject);
+    assertThat(manager.getBoundProjects("myServer", "myProjectKey")).containsExactly(slProject);
+    assertThat(manager.getBoundProjects("myServer", "otherProjectKey")).isEmpty();
+    assertThat(manager.getBoundProjectsByProjectKey("myServer")).containsOnlyKeys("myProjectKey");
+
+    project.close(MONITOR);
+    assertThat(manager.getBoundProjects("myServer")).isEmpty();
+    project.open(MONITOR);
+    assertThat(manager.getBoundProjects("myServer")).containsExactly(slProject);
+
+    config.setProjectBinding(null);
+    SonarLintCorePlugin.saveConfig(slProject, config);
+    assertThat(manager.getBoundProjects("myServer")).isEmpty();
+  }
+
   private void addListener(List<IConnectedEngineFacade> removed, List<IConnectedEngineFacade> changed, List<IConnectedEngineFacade> added) {
     manager.addServerLifecycleListener(new IConnectedEngineFacadeLifecycleListener() {
 
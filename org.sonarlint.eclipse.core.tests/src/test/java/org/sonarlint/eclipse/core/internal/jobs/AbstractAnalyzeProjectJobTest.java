@@ -0,0 +1,50 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AbstractAnalyzeProjectJobTest {
+
+  private static List<Integer> items(int count) {
+    return IntStream.range(0, count).boxed().collect(Collectors.toList());
+  }
+
+  @Test
+  public void should_not_split_small_analyses() {
+    assertThat(AbstractAnalyzeProjectJob.partition(items(3), 10)).containsExactly(items(3));
+    assertThat(AbstractAnalyzeProjectJob.partition(items(10), 10)).containsExactly(items(10));
+    assertThat(AbstractAnalyzeProjectJob.partition(Collections.emptyList(), 10)).hasSize(1);
+  }
+
+  @Test
+  public void should_split_large_analyses_in_even_batches() {
+    List<List<Integer>> batches = AbstractAnalyzeProjectJob.partition(items(21), 10);
+
+    assertThat(batches).extracting(List::size).containsExactly(7, 7, 7);
+    assertThat(batches.stream().flatMap(List::stream)).containsExactlyElementsOf(items(21));
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.IDocument;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisSchedulerTest {
+
+  private static final long DEBOUNCE_MS = 200;
+
+  private final BlockingQueue<RecordingJob> launched = new LinkedBlockingQueue<>();
+  private final AnalysisScheduler scheduler = new AnalysisScheduler(RecordingJob::new, DEBOUNCE_MS);
+  private ISonarLintProject project;
+  private ISonarLintFile file1;
+  private ISonarLintFile file2;
+
+  private class RecordingJob extends Job {
+    private final AnalyzeProjectRequest request;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    RecordingJob(AnalyzeProjectRequest request) {
+      super("Recording job");
+      this.request = request;
+      launched.add(this);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      started.countDown();
+      try {
+        while (!release.await(10, TimeUnit.MILLISECONDS)) {
+          if (monitor.isCanceled()) {
+            return Status.CANCEL_STATUS;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return Status.OK_STATUS;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    project = mock(ISonarLintProject.class);
+    when(project.getName()).thenReturn("project");
+    file1 = mock(ISonarLintFile.class);
+    file2 = mock(ISonarLintFile.class);
+  }
+
+  private AnalyzeProjectRequest request(ISonarLintFile... files) {
+    return new AnalyzeProjectRequest(project, Arrays.stream(files).map(f -> new FileWithDocument(f, null)).collect(Collectors.toList()),
+      TriggerType.EDITOR_CHANGE);
+  }
+
+  private RecordingJob nextLaunched() throws InterruptedException {
+    RecordingJob job = launched.poll(10, TimeUnit.SECONDS);
+    assertThat(job).isNotNull();
+    return job;
+  }
+
+  @Test
+  public void should_merge_requests_within_debounce_window() throws InterruptedException {
+    scheduler.schedule(request(file1));
+    scheduler.schedule(request(file1));
+    scheduler.schedule(request(file2));
+
+    RecordingJob job = nextLaunched();
+    job.release.countDown();
+    job.join();
+
+    assertThat(job.request.getFiles()).extracting(FileWithDocument::getFile).containsExactly(file1, file2);
+    assertThat(job.request.getTriggerType()).isEqualTo(TriggerType.EDITOR_CHANGE);
+    assertThat(launched.poll(2 * DEBOUNCE_MS, TimeUnit.MILLISECONDS)).isNull();
+    assertThat(scheduler.getRequestCount()).isEqualTo(3);
+    assertThat(scheduler.getMergedCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_keep_strongest_trigger_and_known_documents_when_merging() throws InterruptedException {
+    IDocument document = mock(IDocument.class);
+    scheduler.schedule(new AnalyzeProjectRequest(project, Collections.singletonList(new FileWithDocument(file1, document)), TriggerType.EDITOR_OPEN));
+    scheduler.schedule(request(file1, file2));
+
+    RecordingJob job = nextLaunched();
+    job.release.countDown();
+    job.join();
+
+    assertThat(job.request.getTriggerType()).isEqualTo(TriggerType.EDITOR_OPEN);
+    assertThat(job.request.getFiles()).extracting(FileWithDocument::getFile).containsExactly(file1, file2);
+    assertThat(job.request.getFiles()).extracting(FileWithDocument::getDocument).containsExactly(document, null);
+  }
+
+  @Test
+  public void should_cancel_analysis_superseded_by_a_newer_one() throws InterruptedException {
+    scheduler.schedule(request(file1));
+    RecordingJob first = nextLaunched();
+    assertThat(first.started.await(10, TimeUnit.SECONDS)).isTrue();
+
+    scheduler.schedule(request(file1, file2));
+    RecordingJob second = nextLaunched();
+    first.join();
+    second.release.countDown();
+    second.join();
+
+    assertThat(first.getResult().getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(second.getResult().isOK()).isTrue();
+    assertThat(scheduler.getSupersededCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_not_cancel_analysis_of_other_files() throws InterruptedException {
+    scheduler.schedule(request(file1, file2));
+    RecordingJob first = nextLaunched();
+    assertThat(first.started.await(10, TimeUnit.SECONDS)).isTrue();
+
+    scheduler.schedule(request(file1));
+    RecordingJob second = nextLaunched();
+    second.release.countDown();
+    second.join();
+    first.release.countDown();
+    first.join();
+
+    assertThat(first.getResult().isOK()).isTrue();
+    assertThat(scheduler.getSupersededCount()).isZero();
+  }
+
+  @Test
+  public void should_drop_pending_analyses_on_shutdown() throws InterruptedException {
+    scheduler.schedule(new AnalyzeProjectRequest(project, Collections.singletonList(new FileWithDocument(file1, null)), TriggerType.EDITOR_OPEN));
+    scheduler.shutdown();
+
+    assertThat(launched.poll(2 * DEBOUNCE_MS, TimeUnit.MILLISECONDS)).isNull();
+  }
+}
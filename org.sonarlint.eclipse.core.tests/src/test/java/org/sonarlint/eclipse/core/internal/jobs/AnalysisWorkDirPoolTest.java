@@ -0,0 +1,119 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisWorkDirPoolTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path workingDir;
+  private ISonarLintProject project;
+  private AnalysisWorkDirPool pool;
+
+  @Before
+  public void setUp() throws IOException {
+    workingDir = temporaryFolder.newFolder().toPath();
+    project = mock(ISonarLintProject.class);
+    when(project.getWorkingDir()).thenReturn(workingDir);
+    when(project.getName()).thenReturn("project");
+    pool = new AnalysisWorkDirPool();
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  private static long count(Path dir) throws IOException {
+    try (Stream<Path> children = Files.list(dir)) {
+      return children.count();
+    }
+  }
+
+  @Test
+  public void should_reuse_released_directory_once_cleaned() throws Exception {
+    Path dir = pool.lease(project);
+    assertThat(dir).isDirectory();
+    Files.createFile(dir.resolve("build-wrapper.json"));
+    Files.createDirectories(dir.resolve("src/main"));
+
+    pool.release(dir);
+    pool.joinCleanup();
+
+    Path reused = pool.lease(project);
+    assertThat(reused).isEqualTo(dir);
+    assertThat(count(reused)).isZero();
+  }
+
+  @Test
+  public void should_lease_distinct_directories_to_concurrent_analyses() throws Exception {
+    Path dir1 = pool.lease(project);
+    Path dir2 = pool.lease(project);
+
+    assertThat(dir1).isNotEqualTo(dir2);
+    assertThat(dir1.getParent()).isEqualTo(dir2.getParent());
+  }
+
+  @Test
+  public void should_delete_directories_exceeding_idle_limit() throws Exception {
+    List<Path> dirs = new ArrayList<>();
+    for (int i = 0; i < AnalysisWorkDirPool.MAX_IDLE_DIRS + 2; i++) {
+      dirs.add(pool.lease(project));
+    }
+    dirs.forEach(pool::release);
+    pool.joinCleanup();
+
+    assertThat(count(dirs.get(0).getParent())).isEqualTo(AnalysisWorkDirPool.MAX_IDLE_DIRS);
+  }
+
+  @Test
+  public void should_reclaim_directories_left_by_previous_session() throws Exception {
+    Path leftOver = Files.createDirectories(workingDir.resolve("analysisworkdirs").resolve("work123"));
+    Files.createFile(leftOver.resolve("file.c"));
+    Path legacyTempDir = Files.createDirectories(workingDir.resolve("sonarlint456"));
+    Path issues = Files.createDirectories(workingDir.resolve("issues"));
+
+    Path dir = pool.lease(project);
+    pool.joinCleanup();
+
+    assertThat(dir).isEqualTo(leftOver);
+    assertThat(count(dir)).isZero();
+    assertThat(legacyTempDir).doesNotExist();
+    assertThat(issues).exists();
+  }
+}
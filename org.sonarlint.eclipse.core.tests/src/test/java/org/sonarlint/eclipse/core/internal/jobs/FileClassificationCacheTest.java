@@ -0,0 +1,70 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintFileAdapter;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileClassificationCacheTest extends SonarTestCase {
+
+  private static final IEclipsePreferences UI_PREFS = InstanceScope.INSTANCE.getNode(SonarLintCorePlugin.UI_PLUGIN_ID);
+
+  private IProject project;
+  private ISonarLintFile file;
+  private FileClassificationCache cache;
+
+  @Before
+  public void prepare() throws Exception {
+    project = importEclipseProject("SimpleNonJdtProject");
+    file = new DefaultSonarLintFileAdapter(new DefaultSonarLintProjectAdapter(project), project.getFile("src/main/sample.js"));
+    cache = SonarLintCorePlugin.getFileClassificationCache();
+    UI_PREFS.put(SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS, "**/main/**");
+    TestFileClassifier.get().reload();
+  }
+
+  @After
+  public void restore() {
+    UI_PREFS.remove(SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS);
+    TestFileClassifier.get().reload();
+  }
+
+  @Test
+  public void classification_is_remembered_until_patterns_are_reloaded() {
+    assertThat(cache.isTest(file)).isTrue();
+
+    UI_PREFS.put(SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS, "**/test/**");
+    assertThat(cache.isTest(file)).isTrue();
+
+    TestFileClassifier.get().reload();
+    assertThat(cache.isTest(file)).isFalse();
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ParallelProjectsAnalyzerTest {
+
+  private static Map<ISonarLintProject, Collection<FileWithDocument>> projects(int count, boolean open) {
+    return projects(count, open, 1);
+  }
+
+  private static Map<ISonarLintProject, Collection<FileWithDocument>> projects(int count, boolean open, int filesPerProjectCount) {
+    Map<ISonarLintProject, Collection<FileWithDocument>> filesPerProject = new LinkedHashMap<>();
+    for (int i = 0; i < count; i++) {
+      ISonarLintProject project = mock(ISonarLintProject.class);
+      when(project.isOpen()).thenReturn(open);
+      when(project.getName()).thenReturn("project" + i);
+      List<FileWithDocument> files = new ArrayList<>();
+      for (int j = 0; j < filesPerProjectCount; j++) {
+        files.add(new FileWithDocument(mock(ISonarLintFile.class), null));
+      }
+      filesPerProject.put(project, files);
+    }
+    return filesPerProject;
+  }
+
+  private static class RecordingMonitor extends NullProgressMonitor {
+    private int totalWork;
+    private double work;
+
+    @Override
+    public synchronized void beginTask(String name, int totalWork) {
+      this.totalWork = totalWork;
+    }
+
+    @Override
+    public synchronized void internalWorked(double work) {
+      this.work += work;
+    }
+
+    @Override
+    public void worked(int work) {
+      internalWorked(work);
+    }
+
+    synchronized double getProgress() {
+      return work / totalWork;
+    }
+  }
+
+  @Test
+  public void should_analyze_projects_concurrently() {
+    int projectCount = 8;
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicInteger analyzed = new AtomicInteger();
+    CountDownLatch allStarted = new CountDownLatch(2);
+    ParallelProjectsAnalyzer analyzer = new ParallelProjectsAnalyzer(2, (request, monitor) -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      allStarted.countDown();
+      try {
+        // Make sure two analyses overlap
+        allStarted.await(10, TimeUnit.SECONDS);
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      running.decrementAndGet();
+      analyzed.incrementAndGet();
+      return Status.OK_STATUS;
+    });
+
+    IStatus status = analyzer.analyze(projects(projectCount, true), TriggerType.MANUAL, new NullProgressMonitor());
+
+    assertThat(status.isOK()).isTrue();
+    assertThat(analyzed.get()).isEqualTo(projectCount);
+    assertThat(maxRunning.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_skip_closed_projects() {
+    AtomicInteger analyzed = new AtomicInteger();
+    ParallelProjectsAnalyzer analyzer = new ParallelProjectsAnalyzer(4, (request, monitor) -> {
+      analyzed.incrementAndGet();
+      return Status.OK_STATUS;
+    });
+
+    Map<ISonarLintProject, Collection<FileWithDocument>> filesPerProject = projects(2, true);
+    filesPerProject.putAll(projects(3, false));
+    analyzer.analyze(filesPerProject, TriggerType.MANUAL, new NullProgressMonitor());
+
+    assertThat(analyzed.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void should_forward_cancellation_to_running_analyses() {
+    IProgressMonitor monitor = new NullProgressMonitor();
+    AtomicInteger canceledAnalyses = new AtomicInteger();
+    ParallelProjectsAnalyzer analyzer = new ParallelProjectsAnalyzer(2, (request, analysisMonitor) -> {
+      monitor.setCanceled(true);
+      long deadline = System.currentTimeMillis() + 10_000;
+      while (!analysisMonitor.isCanceled() && System.currentTimeMillis() < deadline) {
+        Thread.yield();
+      }
+      if (analysisMonitor.isCanceled()) {
+        canceledAnalyses.incrementAndGet();
+      }
+      return Status.CANCEL_STATUS;
+    });
+
+    IStatus status = analyzer.analyze(projects(4, true), TriggerType.MANUAL, monitor);
+
+    assertThat(status.matches(IStatus.CANCEL)).isTrue();
+    // Analyses not started before the cancellation are skipped
+    assertThat(canceledAnalyses.get()).isBetween(1, 2);
+  }
+
+  @Test
+  public void should_forward_progress_of_concurrent_analyses() {
+    RecordingMonitor monitor = new RecordingMonitor();
+    List<Double> progressAfterFirstHalf = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch firstHalfDone = new CountDownLatch(2);
+    ParallelProjectsAnalyzer analyzer = new ParallelProjectsAnalyzer(2, (request, analysisMonitor) -> {
+      SubMonitor progress = SubMonitor.convert(analysisMonitor, 10);
+      progress.worked(5);
+      firstHalfDone.countDown();
+      try {
+        firstHalfDone.await(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      progressAfterFirstHalf.add(monitor.getProgress());
+      progress.worked(5);
+      return Status.OK_STATUS;
+    });
+
+    IStatus status = analyzer.analyze(projects(2, true, 4), TriggerType.MANUAL, monitor);
+
+    assertThat(status.isOK()).isTrue();
+    // Both analyses reported half of their files before completing
+    assertThat(progressAfterFirstHalf).hasSize(2).allMatch(p -> p >= 0.5);
+    assertThat(monitor.getProgress()).isCloseTo(1.0, within(0.01));
+  }
+}
@@ -32,6 +32,7 @@ import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.jobs.LogListener;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfigurationManager;
 import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -91,4 +92,32 @@ public class SonarLintProjectConfigurationManagerTest extends SonarTestCase {
     assertThat(errors).isEmpty();
 
   }
+
+  @Test
+  public void snapshots_are_reused_until_preferences_change() throws IOException, CoreException, InterruptedException {
+    IProject project = importEclipseProject("SimpleNonJdtProject");
+    ProjectScope projectScope = new ProjectScope(project);
+    SonarLintProjectConfigurationManager manager = SonarLintCorePlugin.getInstance().getProjectConfigManager();
+    SonarLintProjectConfiguration snapshot = manager.loadSnapshot(projectScope, "SimpleNonJdtProject");
+    assertThat(manager.loadSnapshot(projectScope, "SimpleNonJdtProject")).isSameAs(snapshot);
+    assertThat(snapshot.isAutoEnabled()).isTrue();
+
+    SonarLintProjectConfiguration configuration = manager.load(projectScope, "SimpleNonJdtProject");
+    configuration.setAutoEnabled(false);
+    manager.save(projectScope, configuration);
+
+    SonarLintProjectConfiguration newSnapshot = manager.loadSnapshot(projectScope, "SimpleNonJdtProject");
+    assertThat(newSnapshot).isNotSameAs(snapshot);
+    assertThat(newSnapshot.isAutoEnabled()).isFalse();
+
+    configuration.setAutoEnabled(true);
+    manager.save(projectScope, configuration);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void snapshots_are_read_only() throws IOException, CoreException, InterruptedException {
+    IProject project = importEclipseProject("SimpleNonJdtProject");
+    SonarLintProjectConfiguration snapshot = SonarLintCorePlugin.getInstance().getProjectConfigManager().loadSnapshot(new ProjectScope(project), "SimpleNonJdtProject");
+    snapshot.setAutoEnabled(false);
+  }
 }
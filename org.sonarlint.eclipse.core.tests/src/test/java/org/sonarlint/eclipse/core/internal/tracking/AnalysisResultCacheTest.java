@@ -0,0 +1,115 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AnalysisResultCacheTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ISonarLintProject project;
+  private ClientInputFile inputFile;
+  private AnalysisResultCache cache;
+
+  @Before
+  public void setUp() throws IOException {
+    project = mock(ISonarLintProject.class);
+    when(project.exists(anyString())).thenReturn(true);
+    inputFile = mock(ClientInputFile.class);
+    when(inputFile.relativePath()).thenReturn("src/Foo.java");
+    cache = new AnalysisResultCache(temporaryFolder.getRoot().toPath(), project);
+  }
+
+  @After
+  public void tearDown() {
+    cache.close();
+  }
+
+  private static Issue issue(Integer startLine, Integer startLineOffset, Integer endLine, Integer endLineOffset) {
+    Issue issue = mock(Issue.class);
+    when(issue.getRuleKey()).thenReturn("java:S123");
+    when(issue.getRuleName()).thenReturn("Rule name");
+    when(issue.getSeverity()).thenReturn("MAJOR");
+    when(issue.getType()).thenReturn("BUG");
+    when(issue.getMessage()).thenReturn("Fix it");
+    when(issue.getStartLine()).thenReturn(startLine);
+    when(issue.getStartLineOffset()).thenReturn(startLineOffset);
+    when(issue.getEndLine()).thenReturn(endLine);
+    when(issue.getEndLineOffset()).thenReturn(endLineOffset);
+    when(issue.flows()).thenReturn(Collections.emptyList());
+    return issue;
+  }
+
+  @Test
+  public void should_return_cached_issues_with_same_fingerprint() {
+    cache.put(inputFile, "fingerprint", Arrays.asList(issue(3, 4, 5, 6), issue(null, null, null, null)));
+
+    Optional<List<Issue>> cached = cache.get(inputFile, "fingerprint");
+
+    assertThat(cached).isPresent();
+    assertThat(cached.get()).extracting(Issue::getRuleKey, Issue::getRuleName, Issue::getSeverity, Issue::getType, Issue::getMessage, Issue::getInputFile)
+      .containsOnly(tuple("java:S123", "Rule name", "MAJOR", "BUG", "Fix it", inputFile));
+    assertThat(cached.get()).extracting(Issue::getStartLine, Issue::getStartLineOffset, Issue::getEndLine, Issue::getEndLineOffset)
+      .containsExactly(tuple(3, 4, 5, 6), tuple(null, null, null, null));
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_miss_when_fingerprint_changed() {
+    cache.put(inputFile, "fingerprint", Collections.singletonList(issue(1, 0, 1, 5)));
+
+    assertThat(cache.get(inputFile, "other")).isEmpty();
+    assertThat(cache.get(mock(ClientInputFile.class), "fingerprint")).isEmpty();
+    assertThat(cache.get(inputFile, "fingerprint")).isPresent();
+
+    assertThat(cache.getMissCount()).isEqualTo(2);
+    assertThat(cache.getHitRate()).isEqualTo(33);
+  }
+
+  @Test
+  public void should_keep_results_after_restart() {
+    cache.put(inputFile, "fingerprint", Collections.emptyList());
+    cache.close();
+
+    cache = new AnalysisResultCache(temporaryFolder.getRoot().toPath(), project);
+
+    assertThat(cache.get(inputFile, "fingerprint")).hasValue(Collections.emptyList());
+  }
+}
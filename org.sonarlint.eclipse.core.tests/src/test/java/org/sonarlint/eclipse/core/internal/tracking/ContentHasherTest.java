@@ -0,0 +1,133 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.junit.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContentHasherTest {
+
+  private static final String[] SAMPLES = {
+    "",
+    "   \t\r\n",
+    "int i = 0;",
+    "  if (a &&\u000Bb)\f{ return; }  ",
+    "String s = \"héllo wörld €\";",
+    "emoji 😀 and cjk 中文",
+    "lone high \ud83d here",
+    "lone low \ude00 here",
+    "split pair \ud83d \ude00 by a space",
+    "ends with high \ud83d",
+    "non breaking space and ideographic　space"
+  };
+
+  @Test
+  public void should_produce_same_digest_than_legacy_algorithm() {
+    for (String sample : SAMPLES) {
+      assertThat(ContentHasher.digest(sample)).as(sample).isEqualTo(legacyDigest(sample));
+      assertThat(ContentHasher.checksum(sample)).as(sample).isEqualTo(legacyDigest(sample).hashCode());
+    }
+  }
+
+  @Test
+  public void should_hash_document_regions() throws BadLocationException {
+    String content = String.join("\n", SAMPLES);
+    Document document = new Document(content);
+    for (int offset = 0; offset < content.length(); offset += 7) {
+      int length = Math.min(23, content.length() - offset);
+      assertThat(ContentHasher.checksum(document, offset, length)).isEqualTo(legacyDigest(content.substring(offset, offset + length)).hashCode());
+    }
+  }
+
+  @Test(expected = BadLocationException.class)
+  public void should_reject_invalid_document_region() throws BadLocationException {
+    ContentHasher.checksum(new Document("foo"), 2, 2);
+  }
+
+  @Test
+  public void should_hash_long_content() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      sb.append("line ").append(i).append(" é€😀\n");
+    }
+    String content = sb.toString();
+    assertThat(ContentHasher.digest(content)).isEqualTo(legacyDigest(content));
+  }
+
+  @Test
+  public void should_be_thread_safe() throws Exception {
+    Random random = new Random(42);
+    List<String> contents = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      StringBuilder sb = new StringBuilder();
+      int length = random.nextInt(200);
+      for (int j = 0; j < length; j++) {
+        sb.append((char) (' ' + random.nextInt(500)));
+      }
+      contents.add(sb.toString());
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(executor.submit(() -> {
+          for (int round = 0; round < 50; round++) {
+            for (String content : contents) {
+              if (ContentHasher.checksum(content) != legacyDigest(content).hashCode()) {
+                return false;
+              }
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertThat(result.get(30, TimeUnit.SECONDS)).isTrue();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String legacyDigest(String content) {
+    try {
+      byte[] data = MessageDigest.getInstance("MD5").digest(content.replaceAll("[\\s]", "").getBytes(UTF_8));
+      StringBuilder sb = new StringBuilder();
+      for (byte b : data) {
+        sb.append(String.format("%02x", b));
+      }
+      return sb.toString();
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
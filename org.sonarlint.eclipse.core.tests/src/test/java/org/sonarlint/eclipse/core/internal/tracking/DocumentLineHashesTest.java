@@ -0,0 +1,125 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentLineHashesTest {
+
+  private CountingDocument document;
+
+  @Before
+  public void setUp() {
+    document = new CountingDocument("line one\nline two\r\nline three\nline four");
+  }
+
+  @Test
+  public void should_hash_lines_without_delimiter() throws BadLocationException {
+    assertThat(DocumentLineHashes.get(document, 1)).isEqualTo(ContentHasher.checksum("line one"));
+    assertThat(DocumentLineHashes.get(document, 2)).isEqualTo(ContentHasher.checksum("line two"));
+    assertThat(DocumentLineHashes.get(document, 4)).isEqualTo(ContentHasher.checksum("line four"));
+  }
+
+  @Test(expected = BadLocationException.class)
+  public void should_reject_invalid_line() throws BadLocationException {
+    DocumentLineHashes.get(document, 5);
+  }
+
+  @Test
+  public void should_not_hash_unchanged_lines_again() throws BadLocationException {
+    DocumentLineHashes.get(document, 1);
+    DocumentLineHashes.get(document, 3);
+    int reads = document.charReads;
+
+    DocumentLineHashes.get(document, 1);
+    DocumentLineHashes.get(document, 3);
+
+    assertThat(document.charReads).isEqualTo(reads);
+  }
+
+  @Test
+  public void should_only_hash_again_edited_lines() throws BadLocationException {
+    for (int line = 1; line <= 4; line++) {
+      DocumentLineHashes.get(document, line);
+    }
+
+    document.replace(document.getLineOffset(1), 4, "LINE");
+    int reads = document.charReads;
+    assertThat(DocumentLineHashes.get(document, 1)).isEqualTo(ContentHasher.checksum("line one"));
+    assertThat(DocumentLineHashes.get(document, 3)).isEqualTo(ContentHasher.checksum("line three"));
+    assertThat(document.charReads).isEqualTo(reads);
+
+    assertThat(DocumentLineHashes.get(document, 2)).isEqualTo(ContentHasher.checksum("LINE two"));
+    assertThat(document.charReads).isGreaterThan(reads);
+  }
+
+  @Test
+  public void should_shift_hashes_when_lines_are_inserted_or_removed() throws BadLocationException {
+    for (int line = 1; line <= 4; line++) {
+      DocumentLineHashes.get(document, line);
+    }
+
+    document.replace(document.getLineOffset(1), 0, "new line a\nnew line b\n");
+    int reads = document.charReads;
+    assertThat(DocumentLineHashes.get(document, 5)).isEqualTo(ContentHasher.checksum("line three"));
+    assertThat(DocumentLineHashes.get(document, 6)).isEqualTo(ContentHasher.checksum("line four"));
+    assertThat(document.charReads).isEqualTo(reads);
+    assertThat(DocumentLineHashes.get(document, 2)).isEqualTo(ContentHasher.checksum("new line a"));
+
+    document.replace(document.getLineOffset(0), document.getLineOffset(3), "");
+    assertThat(DocumentLineHashes.get(document, 1)).isEqualTo(ContentHasher.checksum("line two"));
+    assertThat(DocumentLineHashes.get(document, 3)).isEqualTo(ContentHasher.checksum("line four"));
+  }
+
+  @Test
+  public void should_stay_consistent_with_document_after_many_edits() throws BadLocationException {
+    String[] edits = {"a", "\n", "b\nc", "", "\r\n\r\n", "xyz"};
+    for (int i = 0; i < 60; i++) {
+      int offset = (i * 7) % (document.getLength() + 1);
+      int length = Math.min(i % 4, document.getLength() - offset);
+      document.replace(offset, length, edits[i % edits.length]);
+      for (int line = 1; line <= document.getNumberOfLines(); line++) {
+        int lineIndex = line - 1;
+        String delimiter = document.getLineDelimiter(lineIndex);
+        String content = document.get(document.getLineOffset(lineIndex), document.getLineLength(lineIndex) - (delimiter != null ? delimiter.length() : 0));
+        assertThat(DocumentLineHashes.get(document, line)).isEqualTo(ContentHasher.checksum(content));
+      }
+    }
+  }
+
+  private static class CountingDocument extends Document {
+    private int charReads;
+
+    CountingDocument(String content) {
+      super(content);
+    }
+
+    @Override
+    public char getChar(int pos) throws BadLocationException {
+      charReads++;
+      return super.getChar(pos);
+    }
+  }
+}
@@ -50,6 +50,11 @@ public class InMemoryIssueTrackerCache implements IssueTrackerCache {
     throw new IllegalStateException("No trackables for file: " + file);
   }
 
+  @Override
+  public boolean isLive(String file) {
+    return cache.containsKey(file);
+  }
+
   @Override
   public void put(String file, Collection<Trackable> trackables) {
     cache.put(file, trackables);
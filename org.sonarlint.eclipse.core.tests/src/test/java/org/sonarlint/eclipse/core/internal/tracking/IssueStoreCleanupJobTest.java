@@ -0,0 +1,139 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IssueStoreCleanupJobTest {
+
+  private static final int VALID_ENTRIES = 300;
+  private static final int INVALID_ENTRIES = 150;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private PackedObjectStore<String> store;
+  private IssueStoreCleanupJob job;
+  private final AtomicInteger validatedKeys = new AtomicInteger();
+
+  @Before
+  public void setUp() throws IOException {
+    Path basePath = temporaryFolder.newFolder().toPath();
+    store = new PackedObjectStore<>(basePath, is -> "", (os, value) -> {
+      try {
+        os.write(value.getBytes(UTF_8));
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }, key -> !key.startsWith("invalid"));
+    for (int i = 0; i < VALID_ENTRIES; i++) {
+      store.write("file" + i, "foo");
+      if (i < INVALID_ENTRIES) {
+        store.write("invalid" + i, "bar");
+      }
+    }
+    job = new IssueStoreCleanupJob(store, key -> {
+      validatedKeys.incrementAndGet();
+      return !key.startsWith("invalid");
+    });
+  }
+
+  @After
+  public void tearDown() {
+    job.cancel();
+    store.close();
+  }
+
+  @Test
+  public void should_validate_a_bounded_batch_per_run() {
+    IStatus status = job.cleanBatch(new NullProgressMonitor());
+    // don't let the rescheduled job interfere
+    job.cancel();
+
+    assertThat(status.isOK()).isTrue();
+    assertThat(job.isSweepInProgress()).isTrue();
+    assertThat(validatedKeys.get()).isEqualTo(IssueStoreCleanupJob.BATCH_SIZE);
+  }
+
+  @Test
+  public void should_remove_all_invalid_entries_after_enough_runs() {
+    int runs = 0;
+    do {
+      job.cleanBatch(new NullProgressMonitor());
+      job.cancel();
+      runs++;
+    } while (job.isSweepInProgress());
+
+    assertThat(runs).isEqualTo(3);
+    assertThat(validatedKeys.get()).isEqualTo(VALID_ENTRIES + INVALID_ENTRIES);
+    assertThat(store.keys()).hasSize(VALID_ENTRIES).allMatch(k -> k.startsWith("file"));
+  }
+
+  @Test
+  public void should_resume_canceled_sweep() {
+    job.cleanBatch(new NullProgressMonitor());
+    job.cancel();
+    NullProgressMonitor canceledMonitor = new NullProgressMonitor();
+    canceledMonitor.setCanceled(true);
+
+    IStatus status = job.cleanBatch(canceledMonitor);
+
+    assertThat(status.getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(job.isSweepInProgress()).isTrue();
+    assertThat(validatedKeys.get()).isEqualTo(IssueStoreCleanupJob.BATCH_SIZE);
+
+    job.cleanBatch(new NullProgressMonitor());
+    job.cancel();
+    job.cleanBatch(new NullProgressMonitor());
+    job.cancel();
+
+    assertThat(job.isSweepInProgress()).isFalse();
+    assertThat(validatedKeys.get()).isEqualTo(VALID_ENTRIES + INVALID_ENTRIES);
+    assertThat(store.keys()).hasSize(VALID_ENTRIES);
+  }
+
+  @Test
+  public void should_not_reschedule_once_stopped() {
+    job.cleanBatch(new NullProgressMonitor());
+    assertThat(job.getState()).isEqualTo(Job.SLEEPING);
+
+    job.stop();
+
+    assertThat(job.getState()).isEqualTo(Job.NONE);
+    IStatus status = job.cleanBatch(new NullProgressMonitor());
+    assertThat(status.getSeverity()).isEqualTo(IStatus.CANCEL);
+    assertThat(validatedKeys.get()).isEqualTo(IssueStoreCleanupJob.BATCH_SIZE);
+    job.schedule();
+    assertThat(job.getState()).isEqualTo(Job.NONE);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IssueTrackerConcurrencyTest {
+
+  private static final String BLOCKED_FILE_PATH = "src/Blocked.java";
+  private static final String OTHER_FILE_PATH = "src/Other.java";
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private static ISonarLintFile file(String path) {
+    ISonarLintFile file = mock(ISonarLintFile.class);
+    when(file.getProjectRelativePath()).thenReturn(path);
+    return file;
+  }
+
+  private static Trackable trackable(String ruleKey, int line) {
+    Trackable trackable = mock(Trackable.class);
+    when(trackable.getRuleKey()).thenReturn(ruleKey);
+    when(trackable.getMessage()).thenReturn("message");
+    when(trackable.getLine()).thenReturn(line);
+    when(trackable.getLineHash()).thenReturn(line);
+    when(trackable.getTextRangeHash()).thenReturn(line);
+    return trackable;
+  }
+
+  @Test
+  public void should_not_block_other_files_while_tracking_a_file() throws Exception {
+    CountDownLatch trackingStarted = new CountDownLatch(1);
+    CountDownLatch releaseTracking = new CountDownLatch(1);
+    IssueTrackerCache cache = new InMemoryIssueTrackerCache() {
+      @Override
+      public Collection<Trackable> getCurrentTrackables(String file) {
+        if (BLOCKED_FILE_PATH.equals(file)) {
+          trackingStarted.countDown();
+          try {
+            releaseTracking.await();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        return super.getCurrentTrackables(file);
+      }
+    };
+    IssueTracker tracker = new IssueTracker(cache);
+    ISonarLintFile blockedFile = file(BLOCKED_FILE_PATH);
+    ISonarLintFile otherFile = file(OTHER_FILE_PATH);
+    cache.put(BLOCKED_FILE_PATH, Collections.emptyList());
+    cache.put(OTHER_FILE_PATH, Collections.emptyList());
+
+    Future<Collection<Trackable>> blocked = executor.submit(() -> tracker.matchAndTrackAsNew(blockedFile, Collections.singletonList(trackable("rule", 1))));
+    assertThat(trackingStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+    Future<?> other = executor.submit(() -> {
+      Collection<Trackable> tracked = tracker.matchAndTrackAsNew(otherFile, Collections.singletonList(trackable("rule", 1)));
+      tracker.updateCache(otherFile, tracked);
+    });
+    other.get(5, TimeUnit.SECONDS);
+    assertThat(blocked.isDone()).isFalse();
+
+    releaseTracking.countDown();
+    assertThat(blocked.get(5, TimeUnit.SECONDS)).hasSize(1);
+  }
+
+  @Test
+  public void should_track_files_concurrently() throws Exception {
+    IssueTrackerCache cache = new InMemoryIssueTrackerCache();
+    IssueTracker tracker = new IssueTracker(cache);
+    int fileCount = 50;
+    int iterations = 100;
+    List<Future<?>> futures = new ArrayList<>();
+    for (int f = 0; f < fileCount; f++) {
+      ISonarLintFile file = file("src/File" + f + ".java");
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < iterations; i++) {
+            List<Trackable> raws = new ArrayList<>();
+            for (int line = 1; line <= 1 + i % 5; line++) {
+              raws.add(trackable("rule", line));
+            }
+            Collection<Trackable> tracked = tracker.matchAndTrackAsNew(file, raws);
+            assertThat(tracked).hasSameSizeAs(raws);
+            tracker.updateCache(file, tracked);
+          }
+        }));
+      }
+    }
+    for (Future<?> future : futures) {
+      future.get(60, TimeUnit.SECONDS);
+    }
+
+    for (int f = 0; f < fileCount; f++) {
+      assertThat(cache.getLiveOrFail("src/File" + f + ".java")).hasSize(5);
+    }
+  }
+}
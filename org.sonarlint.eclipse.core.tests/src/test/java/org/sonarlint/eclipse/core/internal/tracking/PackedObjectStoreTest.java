@@ -0,0 +1,222 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PackedObjectStoreTest {
+
+  private static final Reader<String> READER = is -> {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[256];
+      int read;
+      while ((read = is.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      return new String(out.toByteArray(), UTF_8);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  };
+
+  private static final Writer<String> WRITER = (os, value) -> {
+    try {
+      os.write(value.getBytes(UTF_8));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  };
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path basePath;
+  private PackedObjectStore<String> store;
+
+  @Before
+  public void setUp() throws IOException {
+    basePath = temporaryFolder.newFolder().toPath();
+    store = open();
+  }
+
+  @After
+  public void tearDown() {
+    store.close();
+  }
+
+  private PackedObjectStore<String> open() {
+    return new PackedObjectStore<>(basePath, READER, WRITER, key -> !key.startsWith("invalid"));
+  }
+
+  private PackedObjectStore<String> reopen() {
+    store.close();
+    store = open();
+    return store;
+  }
+
+  @Test
+  public void should_read_back_latest_value() throws IOException {
+    store.write("file1", "foo");
+    store.write("file2", "bar");
+    store.write("file1", "baz");
+
+    assertThat(store.read("file1")).contains("baz");
+    assertThat(store.read("file2")).contains("bar");
+    assertThat(store.read("file3")).isEmpty();
+    assertThat(store.contains("file1")).isTrue();
+    assertThat(store.contains("file3")).isFalse();
+  }
+
+  @Test
+  public void should_reload_records_when_reopened() throws IOException {
+    store.write("file1", "foo");
+    store.write("file2", "bar");
+    store.write("file1", "baz");
+    store.delete("file2");
+
+    PackedObjectStore<String> reopened = reopen();
+    assertThat(reopened.read("file1")).contains("baz");
+    assertThat(reopened.contains("file2")).isFalse();
+  }
+
+  @Test
+  public void should_ignore_partially_written_record() throws IOException {
+    store.write("file1", "foo");
+    store.close();
+    try (OutputStream out = Files.newOutputStream(basePath.resolve(PackedObjectStore.DATA_FILENAME), StandardOpenOption.APPEND)) {
+      out.write(new byte[] {0, 0, 0, 5, 0});
+    }
+
+    store = open();
+    store.write("file2", "bar");
+    PackedObjectStore<String> reopened = reopen();
+    assertThat(reopened.read("file1")).contains("foo");
+    assertThat(reopened.read("file2")).contains("bar");
+  }
+
+  @Test
+  public void should_keep_live_records_when_compacting() throws IOException {
+    store.write("file1", "foo");
+    store.write("file2", "bar");
+    store.write("file1", "baz");
+    store.delete("file2");
+    long sizeBefore = Files.size(basePath.resolve(PackedObjectStore.DATA_FILENAME));
+
+    store.compact();
+
+    assertThat(Files.size(basePath.resolve(PackedObjectStore.DATA_FILENAME))).isLessThan(sizeBefore);
+    assertThat(store.read("file1")).contains("baz");
+    assertThat(store.contains("file2")).isFalse();
+    store.write("file3", "qux");
+    assertThat(reopen().keys()).containsOnly("file1", "file3");
+  }
+
+  @Test
+  public void should_remain_usable_when_compacted_file_cannot_replace_data_file() throws IOException {
+    store.close();
+    store = new PackedObjectStore<String>(basePath, READER, WRITER, key -> true) {
+      @Override
+      protected void replaceDataFile(Path compactedFilePath, Path dataFilePath) throws IOException {
+        throw new IOException("The process cannot access the file because it is being used by another process");
+      }
+    };
+    store.write("file1", "foo");
+    store.write("file2", "bar");
+    store.write("file1", "baz");
+    long sizeBefore = Files.size(basePath.resolve(PackedObjectStore.DATA_FILENAME));
+
+    assertThatThrownBy(store::compact).isInstanceOf(IOException.class);
+
+    assertThat(Files.size(basePath.resolve(PackedObjectStore.DATA_FILENAME))).isEqualTo(sizeBefore);
+    assertThat(basePath.resolve(PackedObjectStore.DATA_FILENAME + ".tmp")).doesNotExist();
+    assertThat(store.read("file1")).contains("baz");
+    assertThat(store.read("file2")).contains("bar");
+    store.write("file3", "qux");
+    assertThat(store.read("file3")).contains("qux");
+    assertThat(reopen().keys()).containsOnly("file1", "file2", "file3");
+  }
+
+  @Test
+  public void should_delete_invalid_entries() throws IOException {
+    store.write("file1", "foo");
+    store.write("invalid1", "bar");
+
+    store.deleteInvalid();
+
+    assertThat(reopen().keys()).containsOnly("file1");
+  }
+
+  @Test
+  public void should_clear_all_entries() throws IOException {
+    store.write("file1", "foo");
+    store.clear();
+
+    assertThat(store.contains("file1")).isFalse();
+    assertThat(reopen().keys()).isEmpty();
+  }
+
+  @Test
+  public void should_migrate_file_per_key_issue_store() throws IOException {
+    ISonarLintProject project = mock(ISonarLintProject.class);
+    when(project.exists(anyString())).thenReturn(true);
+    Trackable trackable = mock(Trackable.class);
+    when(trackable.getRuleKey()).thenReturn("squid:S123");
+    when(trackable.getMessage()).thenReturn("message");
+    when(trackable.getSeverity()).thenReturn("MAJOR");
+    when(trackable.getType()).thenReturn("BUG");
+    when(trackable.getLine()).thenReturn(3);
+    Path issuesPath = temporaryFolder.newFolder().toPath();
+
+    IssueStore filePerKeyStore = new IssueStore(issuesPath, project, IssueStore.Layout.FILE_PER_KEY);
+    filePerKeyStore.save("src/Foo.java", Collections.singletonList(trackable));
+    filePerKeyStore.close();
+
+    IssueStore packedStore = new IssueStore(issuesPath, project, IssueStore.Layout.PACKED);
+    assertThat(packedStore.read("src/Foo.java")).extracting(Trackable::getRuleKey, Trackable::getLine).containsOnly(tuple("squid:S123", 3));
+    packedStore.close();
+    try (Stream<Path> children = Files.list(issuesPath)) {
+      assertThat(children).extracting(p -> p.getFileName().toString()).containsOnly(PackedObjectStore.DATA_FILENAME);
+    }
+  }
+}
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.ProjectScope;
 import org.junit.Before;
@@ -33,11 +34,13 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class PersistentIssueTrackerCacheTest extends SonarTestCase {
 
@@ -46,11 +49,15 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
 
   private static IProject project;
 
+  private static final int MAX_EMPTY_ENTRIES = 100;
+  private static final long EMPTY_ENTRY_WEIGHT = TrackablesWeigher.weigh(file(0), Collections.emptyList());
+
   private PersistentIssueTrackerCache cache;
   private StubIssueStore stubIssueStore;
 
   class StubIssueStore extends IssueStore {
     private final Map<String, Collection<Trackable>> cache = new HashMap<>();
+    private CountDownLatch saveAllowed = new CountDownLatch(0);
 
     public StubIssueStore(ISonarLintProject project) throws IOException {
       super(temporaryFolder.newFolder().toPath(), project);
@@ -58,6 +65,11 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
 
     @Override
     public void save(String key, Collection<Trackable> issues) throws IOException {
+      try {
+        saveAllowed.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
       cache.put(key, issues);
     }
 
@@ -91,29 +103,93 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
   @Before
   public void setUp() throws IOException {
     stubIssueStore = new StubIssueStore(new DefaultSonarLintProjectAdapter(project));
-    cache = new PersistentIssueTrackerCache(stubIssueStore);
+    cache = new PersistentIssueTrackerCache(stubIssueStore, () -> MAX_EMPTY_ENTRIES * EMPTY_ENTRY_WEIGHT);
+  }
+
+  private static String file(int i) {
+    return String.format("file%03d", i);
   }
 
   @Test
   public void should_persist_issues_when_inmemory_limit_reached() {
     int i = 0;
-    for (; i < PersistentIssueTrackerCache.MAX_ENTRIES; i++) {
-      cache.put("file" + i, Collections.emptyList());
+    for (; i < MAX_EMPTY_ENTRIES; i++) {
+      cache.put(file(i), Collections.emptyList());
     }
     assertThat(stubIssueStore.size()).isEqualTo(0);
 
-    cache.put("file" + i++, Collections.emptyList());
+    cache.put(file(i++), Collections.emptyList());
+    cache.awaitPendingWrites();
     assertThat(stubIssueStore.size()).isEqualTo(1);
 
-    cache.put("file" + i++, Collections.emptyList());
+    cache.put(file(i++), Collections.emptyList());
+    cache.awaitPendingWrites();
     assertThat(stubIssueStore.size()).isEqualTo(2);
+    assertThat(cache.getEvictionCount()).isEqualTo(2);
+    assertThat(cache.getWeight()).isEqualTo(MAX_EMPTY_ENTRIES * EMPTY_ENTRY_WEIGHT);
+  }
+
+  @Test
+  public void should_evict_according_to_weight() {
+    for (int i = 0; i < MAX_EMPTY_ENTRIES; i++) {
+      cache.put(file(i), Collections.emptyList());
+    }
+    Collection<Trackable> heavy = Collections.nCopies(10, mock(Trackable.class));
+    cache.put("heavy", heavy);
+    cache.awaitPendingWrites();
+
+    long heavyWeight = TrackablesWeigher.weigh("heavy", heavy);
+    assertThat(heavyWeight).isGreaterThan(2 * EMPTY_ENTRY_WEIGHT);
+    assertThat(stubIssueStore.size()).isGreaterThan(2);
+    assertThat(cache.getWeight()).isLessThanOrEqualTo(MAX_EMPTY_ENTRIES * EMPTY_ENTRY_WEIGHT);
+    assertThat(cache.getLiveOrFail("heavy")).isSameAs(heavy);
+  }
+
+  @Test
+  public void should_keep_latest_entry_even_if_above_limit() {
+    cache = new PersistentIssueTrackerCache(stubIssueStore, () -> 0L);
+    cache.put(file(0), Collections.emptyList());
+    cache.put(file(1), Collections.emptyList());
+    cache.awaitPendingWrites();
+
+    assertThat(stubIssueStore.size()).isEqualTo(1);
+    assertThat(cache.getLiveOrFail(file(1))).isEmpty();
+  }
+
+  @Test
+  public void should_count_hits_and_misses() {
+    cache.put(file(0), Collections.emptyList());
+    cache.getCurrentTrackables(file(0));
+    cache.getCurrentTrackables(file(1));
+    cache.getCurrentTrackables(file(0));
+
+    assertThat(cache.getHitCount()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void should_not_wait_for_store_when_inmemory_limit_reached() {
+    stubIssueStore.saveAllowed = new CountDownLatch(1);
+    Collection<Trackable> evicted = Collections.singletonList(mock(Trackable.class));
+    cache.put(file(0), evicted);
+    for (int i = 1; i <= MAX_EMPTY_ENTRIES; i++) {
+      cache.put(file(i), Collections.emptyList());
+    }
+
+    assertThat(cache.isFirstAnalysis(file(0))).isFalse();
+    assertThat(cache.getCurrentTrackables(file(0))).containsExactlyElementsOf(evicted);
+    assertThat(stubIssueStore.size()).isEqualTo(0);
+
+    stubIssueStore.saveAllowed.countDown();
+    cache.awaitPendingWrites();
+    assertThat(stubIssueStore.size()).isEqualTo(1);
   }
 
   @Test
   public void should_persist_issues_on_shutdown() {
-    int count = PersistentIssueTrackerCache.MAX_ENTRIES / 2;
+    int count = MAX_EMPTY_ENTRIES / 2;
     for (int i = 0; i < count; i++) {
-      cache.put("file" + i, Collections.emptyList());
+      cache.put(file(i), Collections.emptyList());
     }
     assertThat(stubIssueStore.size()).isEqualTo(0);
 
@@ -157,4 +233,29 @@ public class PersistentIssueTrackerCacheTest extends SonarTestCase {
     assertThat(cache.getCurrentTrackables(file)).isEmpty();
     assertThat(stubIssueStore.size()).isEqualTo(0);
   }
+
+  @Test
+  public void should_restore_persisted_issues_as_live() throws IOException {
+    String file = "dummy file";
+    ISonarLintFile sonarLintFile = mock(ISonarLintFile.class);
+    when(sonarLintFile.getProjectRelativePath()).thenReturn(file);
+    Trackable stored = mock(Trackable.class);
+    when(stored.getLine()).thenReturn(3);
+    when(stored.getMarkerId()).thenReturn(42L);
+    stubIssueStore.save(file, Collections.singletonList(stored));
+    assertThat(cache.isLive(file)).isFalse();
+
+    IssueTracker tracker = new IssueTracker(cache);
+    Collection<Trackable> restored = tracker.restore(sonarLintFile);
+
+    assertThat(restored).hasSize(1);
+    Trackable restoredIssue = restored.iterator().next();
+    assertThat(restoredIssue.getMarkerId()).isNull();
+    assertThat(restoredIssue.getLine()).isEqualTo(3);
+    assertThat(cache.isLive(file)).isTrue();
+    assertThat(cache.getLiveOrFail(file)).isSameAs(restored);
+
+    // Already live
+    assertThat(tracker.restore(sonarLintFile)).isEmpty();
+  }
 }
@@ -28,6 +28,7 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
 import org.junit.After;
 import org.junit.Before;
@@ -36,6 +37,7 @@ import org.junit.Test;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
 import org.sonarlint.eclipse.core.internal.jobs.LogListener;
 import org.sonarlint.eclipse.core.internal.jobs.SonarLintMarkerUpdater;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
@@ -46,6 +48,7 @@ import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 import org.sonarlint.eclipse.tests.common.SonarTestCase;
 
 import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.mock;
@@ -246,4 +249,63 @@ public class SonarLintMarkerUpdaterTest extends SonarTestCase {
     assertThat(markers).hasSize(1);
     assertThat(markers[0].getAttribute(MarkerUtils.SONAR_MARKER_CREATION_DATE_ATTR)).isNull();
   }
+
+  @Test
+  public void restored_issues_are_flagged_as_pending_reanalysis() throws Exception {
+    Trackable trackable = newMockTrackable();
+    when(trackable.getMessage()).thenReturn("Restored issue");
+    when(trackable.getLine()).thenReturn(5);
+    when(trackable.getTextRange()).thenReturn(TextRange.get(5, 4, 5, 14));
+
+    IFile file = project.getFile("src/Findbugs.java");
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    DefaultSonarLintFileAdapter restoredFile = new DefaultSonarLintFileAdapter(new DefaultSonarLintProjectAdapter(project), file);
+    IssueTracker issueTracker = mock(IssueTracker.class);
+    when(issueTracker.restore(restoredFile)).thenReturn(singletonList(trackable));
+
+    SonarLintMarkerUpdater.restorePendingMarkers(singletonList(new FileWithDocument(restoredFile, null)), p -> issueTracker, new NullProgressMonitor());
+
+    IMarker[] markers = file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    assertThat(markers).hasSize(1);
+    assertThat(markers[0].getAttribute(IMarker.MESSAGE)).isEqualTo("Restored issue");
+    assertThat(markers[0].getAttribute(IMarker.CHAR_START)).isEqualTo(78);
+    assertThat(markers[0].getAttribute(MarkerUtils.SONAR_MARKER_PENDING_REANALYSIS_ATTR)).isEqualTo(true);
+
+    // The next analysis clears the flag
+    when(trackable.getMarkerId()).thenReturn(markers[0].getId());
+    SonarLintMarkerUpdater.createOrUpdateMarkers(restoredFile, Optional.empty(), singletonList(trackable), TriggerType.EDITOR_OPEN);
+
+    markers = file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    assertThat(markers).hasSize(1);
+    assertThat(markers[0].getAttribute(MarkerUtils.SONAR_MARKER_PENDING_REANALYSIS_ATTR)).isNull();
+  }
+
+  @Test
+  public void pending_markers_are_cleared_when_not_updated_by_an_analysis() throws Exception {
+    Trackable pending = newMockTrackable();
+    when(pending.getMessage()).thenReturn("Pending issue");
+    Trackable updated = newMockTrackable();
+    when(updated.getMessage()).thenReturn("Updated issue");
+
+    IFile file = project.getFile("src/Findbugs.java");
+    file.deleteMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    DefaultSonarLintFileAdapter sonarFile = new DefaultSonarLintFileAdapter(new DefaultSonarLintProjectAdapter(project), file);
+    IssueTracker issueTracker = mock(IssueTracker.class);
+    when(issueTracker.restore(sonarFile)).thenReturn(asList(pending, updated));
+    SonarLintMarkerUpdater.restorePendingMarkers(singletonList(new FileWithDocument(sonarFile, null)), p -> issueTracker, new NullProgressMonitor());
+    IMarker[] markers = file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    assertThat(markers).hasSize(2);
+    // Like an analysis that updated the marker
+    for (IMarker marker : markers) {
+      if ("Updated issue".equals(marker.getAttribute(IMarker.MESSAGE))) {
+        marker.setAttribute(MarkerUtils.SONAR_MARKER_PENDING_REANALYSIS_ATTR, null);
+      }
+    }
+
+    SonarLintMarkerUpdater.clearPendingMarkers(singletonList(sonarFile));
+
+    markers = file.findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO);
+    assertThat(markers).hasSize(1);
+    assertThat(markers[0].getAttribute(IMarker.MESSAGE)).isEqualTo("Updated issue");
+  }
 }
@@ -0,0 +1,198 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.markers.FlowCodec;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint.Issues;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint.Issues.Issue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StoredIssuesTest {
+
+  @Test
+  public void should_decode_all_fields() throws IOException {
+    Issue issue = Issue.newBuilder()
+      .setServerIssueKey("AX-1")
+      .setRuleKey("java:S123")
+      .setLine(42)
+      .setMessage("Fix this é€")
+      .setChecksum(-123456)
+      .setAssignee("john")
+      .setCreationDate(1_500_000_000_000L)
+      .setResolved(true)
+      .setMarkerId(77)
+      .setSeverity("MAJOR")
+      .setType("BUG")
+      .build();
+
+    StoredIssues issues = StoredIssues.parse(Issues.newBuilder().addIssue(issue).build().toByteArray());
+
+    assertThat(issues).hasSize(1);
+    Trackable trackable = issues.get(0);
+    assertThat(trackable.getServerIssueKey()).isEqualTo("AX-1");
+    assertThat(trackable.getRuleKey()).isEqualTo("java:S123");
+    assertThat(trackable.getLine()).isEqualTo(42);
+    assertThat(trackable.getMessage()).isEqualTo("Fix this é€");
+    assertThat(trackable.getLineHash()).isEqualTo(-123456);
+    assertThat(trackable.getAssignee()).isEqualTo("john");
+    assertThat(trackable.getCreationDate()).isEqualTo(1_500_000_000_000L);
+    assertThat(trackable.isResolved()).isTrue();
+    assertThat(trackable.getMarkerId()).isEqualTo(77L);
+    assertThat(trackable.getSeverity()).isEqualTo("MAJOR");
+    assertThat(trackable.getType()).isEqualTo("BUG");
+    assertThat(trackable.getTextRangeHash()).isNull();
+  }
+
+  @Test
+  public void should_decode_text_range_rule_name_and_flows() throws IOException {
+    IssueLocation location = mock(IssueLocation.class);
+    when(location.getMessage()).thenReturn("secondary");
+    when(location.getStartLine()).thenReturn(5);
+    when(location.getStartLineOffset()).thenReturn(1);
+    when(location.getEndLine()).thenReturn(6);
+    when(location.getEndLineOffset()).thenReturn(2);
+    Flow flow = mock(Flow.class);
+    when(flow.locations()).thenReturn(Collections.singletonList(location));
+    Issue issue = Issue.newBuilder()
+      .setLine(3)
+      .setTextRange(Issues.TextRange.newBuilder().setStartLine(3).setStartLineOffset(4).setEndLine(4).setEndLineOffset(8))
+      .setTextRangeHash(-42)
+      .setRuleName("Rule name")
+      .setFlows(FlowCodec.encode(Collections.singletonList(flow)))
+      .setSeverity("BLOCKER")
+      .setRawSeverity("MINOR")
+      .setType("BUG")
+      .build();
+
+    StoredIssues issues = StoredIssues.parse(Issues.newBuilder().setVersion(IssueStore.FORMAT_VERSION).addIssue(issue).build().toByteArray());
+
+    Trackable trackable = issues.get(0);
+    assertThat(trackable.getTextRange()).extracting(TextRange::getStartLine, TextRange::getStartLineOffset, TextRange::getEndLine, TextRange::getEndLineOffset)
+      .containsExactly(3, 4, 4, 8);
+    assertThat(trackable.getTextRangeHash()).isEqualTo(-42);
+    assertThat(trackable.getRuleName()).isEqualTo("Rule name");
+    assertThat(trackable.getRawSeverity()).isEqualTo("MINOR");
+    assertThat(trackable.getRawType()).isEqualTo("BUG");
+    assertThat(trackable.getFlows()).hasSize(1);
+    assertThat(trackable.getFlows().get(0).locations())
+      .extracting(IssueLocation::getMessage, IssueLocation::getStartLine, IssueLocation::getStartLineOffset, IssueLocation::getEndLine, IssueLocation::getEndLineOffset)
+      .containsExactly(tuple("secondary", 5, 1, 6, 2));
+  }
+
+  @Test
+  public void should_locate_issues_saved_without_text_range_on_their_line() throws IOException {
+    Issue issue = Issue.newBuilder().setRuleKey("java:S1").setLine(7).setSeverity("MAJOR").setType("BUG").build();
+
+    StoredIssues issues = StoredIssues.parse(Issues.newBuilder().addIssue(issue).build().toByteArray());
+
+    Trackable trackable = issues.get(0);
+    assertThat(trackable.getTextRange().isLineOnly()).isTrue();
+    assertThat(trackable.getTextRange().getStartLine()).isEqualTo(7);
+    assertThat(trackable.getTextRangeHash()).isNull();
+    assertThat(trackable.getRuleName()).isEmpty();
+    assertThat(trackable.getFlows()).isEmpty();
+    assertThat(trackable.getRawSeverity()).isEqualTo("MAJOR");
+    assertThat(trackable.getRawType()).isEqualTo("BUG");
+  }
+
+  @Test
+  public void should_keep_marker_id_set_after_reading() throws IOException {
+    StoredIssues issues = StoredIssues.parse(Issues.newBuilder().addIssue(Issue.newBuilder().setMarkerId(3)).build().toByteArray());
+
+    issues.get(0).setMarkerId(4L);
+
+    assertThat(issues.get(0).getMarkerId()).isEqualTo(4L);
+  }
+
+  @Test
+  public void should_use_defaults_for_unset_fields() throws IOException {
+    StoredIssues issues = StoredIssues.parse(Issues.newBuilder().addIssue(Issue.newBuilder().build()).build().toByteArray());
+
+    Trackable trackable = issues.get(0);
+    assertThat(trackable.getServerIssueKey()).isNull();
+    assertThat(trackable.getLine()).isNull();
+    assertThat(trackable.getCreationDate()).isNull();
+    assertThat(trackable.getMarkerId()).isNull();
+    assertThat(trackable.getRuleKey()).isEmpty();
+    assertThat(trackable.getAssignee()).isEmpty();
+    assertThat(trackable.getLineHash()).isZero();
+  }
+
+  @Test
+  public void should_decode_many_issues_in_order() throws IOException {
+    Issues.Builder builder = Issues.newBuilder();
+    for (int i = 1; i <= 1000; i++) {
+      builder.addIssue(Issue.newBuilder().setRuleKey("rule" + i).setLine(i).setChecksum(i * 31).build());
+    }
+
+    StoredIssues issues = StoredIssues.parse(builder.build().toByteArray());
+
+    assertThat(issues).hasSize(1000);
+    assertThat(issues.get(0)).extracting(Trackable::getRuleKey, Trackable::getLine, Trackable::getLineHash).containsExactly("rule1", 1, 31);
+    assertThat(issues.get(999)).extracting(Trackable::getRuleKey, Trackable::getLine, Trackable::getLineHash).containsExactly("rule1000", 1000, 31000);
+    assertThat(issues.get(5)).isSameAs(issues.get(5));
+  }
+
+  @Test
+  public void should_decode_empty_issues() throws IOException {
+    assertThat(StoredIssues.parse(new byte[0])).isEmpty();
+  }
+
+  @Test
+  public void should_skip_unknown_fields() throws IOException {
+    ByteArrayOutputStream issue = new ByteArrayOutputStream();
+    CodedOutputStream issueOutput = CodedOutputStream.newInstance(issue);
+    issueOutput.writeString(Issue.RULEKEY_FIELD_NUMBER, "java:S1");
+    issueOutput.writeString(99, "added by a later version");
+    issueOutput.writeInt64(98, 5L);
+    issueOutput.writeInt32(Issue.LINE_FIELD_NUMBER, 3);
+    issueOutput.flush();
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    CodedOutputStream dataOutput = CodedOutputStream.newInstance(data);
+    dataOutput.writeInt32(97, 1);
+    dataOutput.writeByteArray(Issues.ISSUE_FIELD_NUMBER, issue.toByteArray());
+    dataOutput.flush();
+
+    StoredIssues issues = StoredIssues.parse(data.toByteArray());
+
+    assertThat(issues).extracting(Trackable::getRuleKey, Trackable::getLine, Trackable::getMessage)
+      .containsExactly(tuple("java:S1", 3, ""));
+  }
+
+  @Test(expected = InvalidProtocolBufferException.class)
+  public void should_fail_on_truncated_data() throws IOException {
+    byte[] data = Issues.newBuilder().addIssue(Issue.newBuilder().setRuleKey("java:S1").setMessage("message").build()).build().toByteArray();
+    StoredIssues.parse(Arrays.copyOf(data, data.length - 3));
+  }
+}
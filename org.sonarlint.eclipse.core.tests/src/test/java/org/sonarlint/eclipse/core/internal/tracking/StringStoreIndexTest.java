@@ -0,0 +1,103 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StringStoreIndexTest {
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path basePath;
+  private StringStoreIndex index;
+
+  @Before
+  public void setUp() throws IOException {
+    basePath = temporaryFolder.newFolder().toPath();
+    index = new StringStoreIndex(basePath);
+  }
+
+  @Test
+  public void should_replay_journal_on_load() {
+    index.save("file1", basePath.resolve("a/1"));
+    index.save("file2", basePath.resolve("b/2"));
+    index.delete("file1");
+
+    assertThat(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME)).exists();
+    assertThat(basePath.resolve(StringStoreIndex.INDEX_FILENAME)).doesNotExist();
+    assertThat(new StringStoreIndex(basePath).keys()).containsOnly("file2");
+  }
+
+  @Test
+  public void should_not_append_when_key_already_indexed() throws IOException {
+    index.save("file1", basePath.resolve("a/1"));
+    long journalSize = Files.size(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME));
+
+    index.save("file1", basePath.resolve("a/1"));
+    index.delete("unknown");
+
+    assertThat(Files.size(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME))).isEqualTo(journalSize);
+  }
+
+  @Test
+  public void should_compact_journal_into_snapshot() {
+    for (int i = 0; i <= StringStoreIndex.MIN_ENTRIES_BEFORE_COMPACTION; i++) {
+      index.save("file" + i, basePath.resolve("a/" + i));
+    }
+
+    assertThat(basePath.resolve(StringStoreIndex.INDEX_FILENAME)).exists();
+    assertThat(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME)).doesNotExist();
+    assertThat(new StringStoreIndex(basePath).keys()).hasSize(StringStoreIndex.MIN_ENTRIES_BEFORE_COMPACTION + 1);
+  }
+
+  @Test
+  public void should_ignore_truncated_journal_entry() throws IOException {
+    index.save("file1", basePath.resolve("a/1"));
+    try (OutputStream out = Files.newOutputStream(basePath.resolve(StringStoreIndex.JOURNAL_FILENAME), StandardOpenOption.APPEND)) {
+      // length prefix announcing more bytes than available
+      out.write(new byte[] {42, 10});
+    }
+
+    StringStoreIndex reloaded = new StringStoreIndex(basePath);
+    assertThat(reloaded.keys()).containsOnly("file1");
+    reloaded.save("file2", basePath.resolve("b/2"));
+    assertThat(new StringStoreIndex(basePath).keys()).containsOnly("file1", "file2");
+  }
+
+  @Test
+  public void should_clear_persisted_entries() {
+    index.save("file1", basePath.resolve("a/1"));
+    index.clear();
+
+    assertThat(index.keys()).isEmpty();
+    assertThat(new StringStoreIndex(basePath).keys()).isEmpty();
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.eclipse.core.resources.IProject;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
+import org.sonarlint.eclipse.core.internal.resources.DefaultSonarLintProjectAdapter;
+import org.sonarlint.eclipse.core.internal.resources.ExclusionItem;
+import org.sonarlint.eclipse.core.internal.resources.ExclusionItem.Type;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarlint.eclipse.tests.common.SonarTestCase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FileExclusionsCheckerTest extends SonarTestCase {
+
+  private static ISonarLintProject project;
+
+  @BeforeClass
+  public static void importProject() throws Exception {
+    IProject eclipseProject = importEclipseProject("SimpleNonJdtProject");
+    project = new DefaultSonarLintProjectAdapter(eclipseProject);
+  }
+
+  @After
+  public void clearExclusions() {
+    setProjectExclusions();
+  }
+
+  private static void setProjectExclusions(ExclusionItem... exclusions) {
+    SonarLintProjectConfiguration configuration = SonarLintCorePlugin.loadConfigForUpdate(project);
+    configuration.getFileExclusions().clear();
+    configuration.getFileExclusions().addAll(Arrays.asList(exclusions));
+    SonarLintCorePlugin.saveConfig(project, configuration);
+  }
+
+  private static ISonarLintFile file(String relativePath) {
+    ISonarLintFile file = mock(ISonarLintFile.class);
+    when(file.getProject()).thenReturn(project);
+    when(file.getProjectRelativePath()).thenReturn(relativePath);
+    when(file.getName()).thenReturn(relativePath.substring(relativePath.lastIndexOf('/') + 1));
+    return file;
+  }
+
+  @Test
+  public void should_filter_files_excluded_in_project() {
+    setProjectExclusions(new ExclusionItem(Type.FILE, "src/Excluded.java"), new ExclusionItem(Type.DIRECTORY, "build"),
+      new ExclusionItem(Type.GLOB, "**/generated/**"));
+    ISonarLintFile included = file("src/Included.java");
+    ISonarLintFile excludedFile = file("src/Excluded.java");
+    ISonarLintFile excludedByDirectory = file("build/Foo.java");
+    ISonarLintFile excludedByGlob = file("src/generated/Bar.java");
+    List<ISonarLintFile> files = Arrays.asList(included, excludedFile, excludedByDirectory, excludedByGlob);
+
+    Collection<ISonarLintFile> notExcluded = new FileExclusionsChecker(project).filterExcludedFiles(project, files);
+
+    assertThat(notExcluded).containsOnly(included);
+  }
+
+  @Test
+  public void should_apply_changed_exclusions() {
+    ISonarLintFile file1 = file("src/File1.java");
+    ISonarLintFile file2 = file("src/File2.java");
+    List<ISonarLintFile> files = Arrays.asList(file1, file2);
+    setProjectExclusions(new ExclusionItem(Type.FILE, "src/File1.java"));
+    assertThat(new FileExclusionsChecker(project).filterExcludedFiles(project, files)).containsOnly(file2);
+    // Compiled exclusions are cached as long as preferences are not changed
+    assertThat(new FileExclusionsChecker(project).filterExcludedFiles(project, files)).containsOnly(file2);
+
+    setProjectExclusions(new ExclusionItem(Type.FILE, "src/File2.java"));
+
+    assertThat(new FileExclusionsChecker(project).filterExcludedFiles(project, files)).containsOnly(file1);
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.utils;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GlobMatcherTest {
+
+  private static final List<String> GLOBS = Arrays.asList("**/test/**", "**/*Test.java", "src/*/Foo.java", "a/**/b/**/c", "**/{main,it}/*.js",
+    "**/[A-C]*.java", "*", "foo**bar", "**/a{b/c,d}/e", "src/main/java/Foo.java", "x/");
+  private static final List<String> PATHS = Arrays.asList("src/test/Foo.java", "test/Foo.java", "Foo.java", "src/main/Foo.java", "src/main/java/Foo.java",
+    "src/main/FooTest.java", "src/main/Bar.java", "src/main/Dar.java", "a/b/c", "a/x/b/y/c", "a/c", "src/it/a.js", "src/other/a.js", "fooxbar", "foo/bar",
+    "x/ab/c/e", "x/ad/e", "x");
+
+  @Test
+  public void should_match_like_file_system_glob_matchers() {
+    for (String glob : GLOBS) {
+      GlobMatcher matcher = new GlobMatcher(Collections.singletonList(glob));
+      for (String path : PATHS) {
+        boolean expected = FileSystems.getDefault().getPathMatcher("glob:" + glob).matches(Paths.get(path));
+        assertThat(matcher.matches(path)).as(glob + " " + path).isEqualTo(expected);
+        // Second call uses remembered directories
+        assertThat(matcher.matches(path)).as(glob + " " + path).isEqualTo(expected);
+      }
+    }
+  }
+
+  @Test
+  public void should_match_any_glob() {
+    GlobMatcher matcher = new GlobMatcher(GLOBS);
+    for (String path : PATHS) {
+      boolean expected = GLOBS.stream().anyMatch(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob).matches(Paths.get(path)));
+      assertThat(matcher.matches(path)).as(path).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void should_match_files_and_directory_content() {
+    GlobMatcher matcher = new GlobMatcher(Collections.emptyList(), Collections.singletonList("src/Foo.java"), Arrays.asList("target", "src/gen/"));
+    assertThat(matcher.matches("src/Foo.java")).isTrue();
+    assertThat(matcher.matches("src/Foo.javax")).isFalse();
+    assertThat(matcher.matches("target/classes/Foo.class")).isTrue();
+    assertThat(matcher.matches("targets/Foo.class")).isFalse();
+    assertThat(matcher.matches("src/gen/Foo.java")).isTrue();
+  }
+
+  @Test
+  public void should_ignore_invalid_and_empty_globs() {
+    GlobMatcher matcher = new GlobMatcher(Arrays.asList("{a,b", ""));
+    assertThat(matcher.matches("a")).isFalse();
+    assertThat(matcher.matches("Foo.java")).isFalse();
+  }
+}
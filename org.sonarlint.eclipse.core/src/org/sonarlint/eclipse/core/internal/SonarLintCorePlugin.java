@@ -20,6 +20,8 @@
 package org.sonarlint.eclipse.core.internal;
 
 import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.eclipse.core.net.proxy.IProxyService;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -34,12 +36,17 @@ import org.sonarlint.eclipse.core.internal.engine.StandaloneEngineFacade;
 import org.sonarlint.eclipse.core.internal.engine.connected.ConnectedEngineFacadeManager;
 import org.sonarlint.eclipse.core.internal.event.AnalysisListenerManager;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
+import org.sonarlint.eclipse.core.internal.jobs.AnalysisScheduler;
+import org.sonarlint.eclipse.core.internal.jobs.AnalysisWorkDirPool;
+import org.sonarlint.eclipse.core.internal.jobs.FileClassificationCache;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsManager;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsTracker;
 import org.sonarlint.eclipse.core.internal.notifications.NotificationsTrackerRegistry;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfigurationManager;
 import org.sonarlint.eclipse.core.internal.telemetry.SonarLintTelemetry;
+import org.sonarlint.eclipse.core.internal.tracking.AnalysisResultCache;
 import org.sonarlint.eclipse.core.internal.tracking.IssueStore;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTrackerCacheFactory;
@@ -54,6 +61,7 @@ public class SonarLintCorePlugin extends Plugin {
   public static final String UI_PLUGIN_ID = "org.sonarlint.eclipse.ui";
   public static final String MARKER_ON_THE_FLY_ID = PLUGIN_ID + ".sonarlintOnTheFlyProblem";
   public static final String MARKER_REPORT_ID = PLUGIN_ID + ".sonarlintReportProblem";
+  public static final String FILE_PER_KEY_ISSUE_STORE_PROPERTY_KEY = "sonarlint.internal.issueStore.filePerKey";
 
   private static SonarLintCorePlugin plugin;
   private static SonarLintProjectConfigurationManager configManager;
@@ -61,11 +69,16 @@ public class SonarLintCorePlugin extends Plugin {
 
   private IssueTrackerRegistry issueTrackerRegistry;
   private ServerIssueUpdater serverIssueUpdater;
+  // Use project name as key since we don't know if ISonarLintProject instances are implementing hashcode
+  private final Map<String, AnalysisResultCache> analysisResultCaches = new ConcurrentHashMap<>();
 
   private StandaloneEngineFacade sonarlint;
   private final ServiceTracker<IProxyService, IProxyService> proxyTracker;
 
   private AnalysisListenerManager analysisListenerManager = new AnalysisListenerManager();
+  private final AnalysisScheduler analysisScheduler = new AnalysisScheduler();
+  private final AnalysisWorkDirPool analysisWorkDirPool = new AnalysisWorkDirPool();
+  private final FileClassificationCache fileClassificationCache = new FileClassificationCache();
   private SonarLintTelemetry telemetry = new SonarLintTelemetry();
   private ConnectedEngineFacadeManager serversManager = null;
 
@@ -99,10 +112,13 @@ public class SonarLintCorePlugin extends Plugin {
   public void start(BundleContext context) throws Exception {
     super.start(context);
 
+    IssueStore.Layout issueStoreLayout = "true".equals(System.getProperty(FILE_PER_KEY_ISSUE_STORE_PROPERTY_KEY)) ? IssueStore.Layout.FILE_PER_KEY
+      : IssueStore.Layout.PACKED;
     IssueTrackerCacheFactory factory = project -> {
       Path storeBasePath = StoragePathManager.getIssuesDir(project);
-      IssueStore issueStore = new IssueStore(storeBasePath, project);
-      return new PersistentIssueTrackerCache(issueStore);
+      IssueStore issueStore = new IssueStore(storeBasePath, project, issueStoreLayout);
+      issueStore.scheduleCleanup();
+      return new PersistentIssueTrackerCache(issueStore, () -> SonarLintGlobalConfiguration.getIssueCacheMaxSizeMb() * 1024L * 1024L);
     };
     issueTrackerRegistry = new IssueTrackerRegistry(factory);
 
@@ -143,6 +159,9 @@ public class SonarLintCorePlugin extends Plugin {
   @Override
   public void stop(BundleContext context) throws Exception {
     telemetry.stop();
+    analysisScheduler.shutdown();
+    analysisWorkDirPool.shutdown();
+    fileClassificationCache.shutdown();
 
     if (sonarlint != null) {
       sonarlint.stop();
@@ -150,6 +169,7 @@ public class SonarLintCorePlugin extends Plugin {
     proxyTracker.close();
 
     issueTrackerRegistry.shutdown();
+    closeAnalysisResultCaches();
     if (serversManager != null) {
       serversManager.stop();
     }
@@ -181,10 +201,41 @@ public class SonarLintCorePlugin extends Plugin {
     getInstance().issueTrackerRegistry.get(project).ifPresent(IssueTracker::clear);
   }
 
+  public static AnalysisResultCache getOrCreateAnalysisResultCache(ISonarLintProject project) {
+    return getInstance().analysisResultCaches.computeIfAbsent(project.getName(),
+      name -> new AnalysisResultCache(StoragePathManager.getAnalysisResultsDir(project), project));
+  }
+
+  private void closeAnalysisResultCaches() {
+    long hits = 0;
+    long misses = 0;
+    for (AnalysisResultCache cache : analysisResultCaches.values()) {
+      hits += cache.getHitCount();
+      misses += cache.getMissCount();
+      cache.close();
+    }
+    analysisResultCaches.clear();
+    if (hits + misses > 0) {
+      SonarLintLogger.get().debug(String.format("Analysis result cache statistics: %d hit(s), %d miss(es) (%d%% hit rate)", hits, misses, hits * 100 / (hits + misses)));
+    }
+  }
+
   public static AnalysisListenerManager getAnalysisListenerManager() {
     return getInstance().analysisListenerManager;
   }
 
+  public static AnalysisScheduler getAnalysisScheduler() {
+    return getInstance().analysisScheduler;
+  }
+
+  public static AnalysisWorkDirPool getAnalysisWorkDirPool() {
+    return getInstance().analysisWorkDirPool;
+  }
+
+  public static FileClassificationCache getFileClassificationCache() {
+    return getInstance().fileClassificationCache;
+  }
+
   public static SonarLintTelemetry getTelemetry() {
     return getInstance().telemetry;
   }
@@ -201,7 +252,18 @@ public class SonarLintCorePlugin extends Plugin {
     return getInstance().notificationsTrackerRegistry.getOrCreate(project);
   }
 
+  /**
+   * Read-only configuration of the project, cheap enough to be called from decorators and resource listeners.
+   * Use {@link #loadConfigForUpdate(ISonarLintProject)} to change the configuration.
+   */
   public static SonarLintProjectConfiguration loadConfig(ISonarLintProject project) {
+    return getInstance().getProjectConfigManager().loadSnapshot(project.getScopeContext(), project.getName());
+  }
+
+  /**
+   * Configuration of the project freshly read from preferences, that can be changed then passed to {@link #saveConfig(ISonarLintProject, SonarLintProjectConfiguration)}
+   */
+  public static SonarLintProjectConfiguration loadConfigForUpdate(ISonarLintProject project) {
     return getInstance().getProjectConfigManager().load(project.getScopeContext(), project.getName());
   }
 
@@ -48,6 +48,14 @@ public class StoragePathManager {
     return project.getWorkingDir().resolve("issues");
   }
 
+  public static Path getAnalysisResultsDir(ISonarLintProject project) {
+    return project.getWorkingDir().resolve("analysisresults");
+  }
+
+  public static Path getAnalysisWorkDirsDir(ISonarLintProject project) {
+    return project.getWorkingDir().resolve("analysisworkdirs");
+  }
+
   public static Path getNotificationsDir(ISonarLintProject project) {
     return project.getWorkingDir().resolve("notifications");
   }
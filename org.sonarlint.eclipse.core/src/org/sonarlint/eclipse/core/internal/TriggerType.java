@@ -35,10 +35,11 @@ public enum TriggerType {
 
   private final String name;
 
+  // From the weakest to the strongest update
   private enum ServerIssueUpdateStrategy {
     NO_UPDATE,
-    PER_PROJECT_OR_PER_FILE_SYNC,
-    PER_FILE_ASYNC
+    PER_FILE_ASYNC,
+    PER_PROJECT_OR_PER_FILE_SYNC
   }
 
   private final ServerIssueUpdateStrategy updateStrategy;
@@ -64,6 +65,13 @@ public enum TriggerType {
     return updateStrategy == ServerIssueUpdateStrategy.PER_PROJECT_OR_PER_FILE_SYNC && fileCount >= PER_FILE_THRESHOLD;
   }
 
+  /**
+   * @return the trigger that updates server issues the most, this one if both update them the same way
+   */
+  public TriggerType withStrongestServerIssueUpdate(TriggerType other) {
+    return other.updateStrategy.compareTo(updateStrategy) > 0 ? other : this;
+  }
+
   public boolean isOnTheFly() {
     return this != MANUAL && this != MANUAL_CHANGESET;
   }
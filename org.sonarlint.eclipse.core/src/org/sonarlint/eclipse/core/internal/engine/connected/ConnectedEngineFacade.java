@@ -30,7 +30,6 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
@@ -46,7 +45,6 @@ import org.sonarlint.eclipse.core.internal.jobs.SonarLintAnalyzerLogOutput;
 import org.sonarlint.eclipse.core.internal.jobs.WrappedProgressMonitor;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
-import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
 import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
@@ -195,15 +193,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
         checkForUpdateResult.changelog().forEach(line -> SonarLintLogger.get().info("  - " + line));
       }
 
-      Set<String> projectKeys = getBoundProjects()
-        .stream()
-        .map(SonarLintCorePlugin::loadConfig)
-        .map(SonarLintProjectConfiguration::getProjectBinding)
-        // Useless in practice because we only have bound projects
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(ProjectBinding::projectKey)
-        .collect(Collectors.toSet());
+      Set<String> projectKeys = SonarLintCorePlugin.getServersManager().getBoundProjectsByProjectKey(id).keySet();
 
       for (String projectKey : projectKeys) {
         SubMonitor projectMonitor = subMonitor.newChild(1);
@@ -287,7 +277,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
 
   public static void unbind(ISonarLintProject project) {
     SonarLintCorePlugin.getInstance().notificationsManager().unsubscribe(project);
-    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(project);
+    SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfigForUpdate(project);
     config.setProjectBinding(null);
     SonarLintCorePlugin.saveConfig(project, config);
     project.deleteAllMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID);
@@ -357,24 +347,11 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
 
   @Override
   public List<ISonarLintProject> getBoundProjects() {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .filter(p -> {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        return config.getProjectBinding().filter(b -> id.equals(b.connectionId())).isPresent();
-      }).collect(toList());
+    return SonarLintCorePlugin.getServersManager().getBoundProjects(id);
   }
 
   public List<RemoteSonarProject> getBoundRemoteProjects(IProgressMonitor monitor) {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .map(SonarLintCorePlugin::loadConfig)
-      .map(SonarLintProjectConfiguration::getProjectBinding)
-      .flatMap(o -> o.isPresent() ? Stream.of(o.get()) : Stream.empty())
-      .filter(c -> c.connectionId().equals(id))
-      .map(ProjectBinding::projectKey)
-      .distinct()
-      .sorted()
+    return SonarLintCorePlugin.getServersManager().getBoundProjectsByProjectKey(id).keySet().stream()
       .map(projectKey -> {
         Optional<RemoteProject> remoteProject = getRemoteProject(projectKey, monitor);
         if (remoteProject.isPresent()) {
@@ -387,12 +364,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
   }
 
   public List<ISonarLintProject> getBoundProjects(String projectKey) {
-    return ProjectsProviderUtils.allProjects().stream()
-      .filter(ISonarLintProject::isOpen)
-      .filter(p -> {
-        SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
-        return config.getProjectBinding().filter(b -> id.equals(b.connectionId()) && projectKey.equals(b.projectKey())).isPresent();
-      }).collect(toList());
+    return SonarLintCorePlugin.getServersManager().getBoundProjects(id, projectKey);
   }
 
   @Override
@@ -403,7 +375,7 @@ public class ConnectedEngineFacade implements IConnectedEngineFacade, StateListe
       String idePathPrefix = projectBinding.idePathPrefix();
       String sqPathPrefix = projectBinding.sqPathPrefix();
       SonarLintLogger.get().debug("Detected prefixes for " + p.getName() + ":\n  IDE prefix: " + idePathPrefix + "\n  ConnectedEngineFacade side prefix: " + sqPathPrefix);
-      SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfig(p);
+      SonarLintProjectConfiguration config = SonarLintCorePlugin.loadConfigForUpdate(p);
       config.setProjectBinding(new EclipseProjectBinding(getId(), projectKey, sqPathPrefix, idePathPrefix));
       SonarLintCorePlugin.saveConfig(p, config);
     });
@@ -23,11 +23,17 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.preferences.DefaultScope;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.INodeChangeListener;
@@ -43,6 +49,8 @@ import org.osgi.service.prefs.Preferences;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
+import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedGlobalConfiguration;
@@ -64,6 +72,27 @@ public class ConnectedEngineFacadeManager {
 
   private final List<IConnectedEngineFacadeLifecycleListener> connectionsListeners = new ArrayList<>();
 
+  // Open bound projects by connection id then by project key, rebuilt after a binding is changed or a project is opened or closed
+  private final Object bindingIndexLock = new Object();
+  @Nullable
+  private Map<String, Map<String, List<ISonarLintProject>>> bindingIndex;
+  private int bindingIndexVersion;
+
+  private final Runnable projectConfigurationChangeListener = this::invalidateBindingIndex;
+
+  private final IResourceChangeListener projectsChangeListener = event -> {
+    IResourceDelta delta = event.getDelta();
+    if (delta == null) {
+      return;
+    }
+    for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+      if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0) {
+        invalidateBindingIndex();
+        return;
+      }
+    }
+  };
+
   private final IPreferenceChangeListener connectedEngineChangeListener = event -> {
     try {
       if (!event.getNode().nodeExists("") || !event.getNode().parent().nodeExists("")) {
@@ -138,6 +167,8 @@ public class ConnectedEngineFacadeManager {
   };
 
   public void init() {
+    SonarLintCorePlugin.getInstance().getProjectConfigManager().addConfigurationChangeListener(projectConfigurationChangeListener);
+    ResourcesPlugin.getWorkspace().addResourceChangeListener(projectsChangeListener, IResourceChangeEvent.POST_CHANGE);
     IEclipsePreferences rootNode = getSonarLintPreferenceNode();
     rootNode.addNodeChangeListener(rootNodeChangeListener);
     try {
@@ -158,6 +189,9 @@ public class ConnectedEngineFacadeManager {
   }
 
   public void stop() {
+    SonarLintCorePlugin.getInstance().getProjectConfigManager().removeConfigurationChangeListener(projectConfigurationChangeListener);
+    ResourcesPlugin.getWorkspace().removeResourceChangeListener(projectsChangeListener);
+    invalidateBindingIndex();
     IEclipsePreferences rootNode = getSonarLintPreferenceNode();
     rootNode.removeNodeChangeListener(rootNodeChangeListener);
     try {
@@ -316,6 +350,61 @@ public class ConnectedEngineFacadeManager {
     return Optional.ofNullable(facadesByConnectionId.get(Objects.requireNonNull(id)));
   }
 
+  /**
+   * @return open projects bound to the given connection, by project key
+   */
+  public Map<String, List<ISonarLintProject>> getBoundProjectsByProjectKey(String connectionId) {
+    return getBindingIndex().getOrDefault(connectionId, Collections.emptyMap());
+  }
+
+  public List<ISonarLintProject> getBoundProjects(String connectionId) {
+    List<ISonarLintProject> result = new ArrayList<>();
+    getBoundProjectsByProjectKey(connectionId).values().forEach(result::addAll);
+    return result;
+  }
+
+  public List<ISonarLintProject> getBoundProjects(String connectionId, String projectKey) {
+    return new ArrayList<>(getBoundProjectsByProjectKey(connectionId).getOrDefault(projectKey, Collections.emptyList()));
+  }
+
+  private Map<String, Map<String, List<ISonarLintProject>>> getBindingIndex() {
+    int version;
+    synchronized (bindingIndexLock) {
+      if (bindingIndex != null) {
+        return bindingIndex;
+      }
+      version = bindingIndexVersion;
+    }
+    Map<String, Map<String, List<ISonarLintProject>>> index = new HashMap<>();
+    for (ISonarLintProject project : ProjectsProviderUtils.allProjects()) {
+      if (project.isOpen()) {
+        Optional<EclipseProjectBinding> binding = SonarLintCorePlugin.loadConfig(project).getProjectBinding();
+        binding.ifPresent(b -> index
+          .computeIfAbsent(b.connectionId(), k -> new TreeMap<>())
+          .computeIfAbsent(b.projectKey(), k -> new ArrayList<>())
+          .add(project));
+      }
+    }
+    index.replaceAll((connectionId, projectsByKey) -> {
+      projectsByKey.replaceAll((projectKey, projects) -> Collections.unmodifiableList(projects));
+      return Collections.unmodifiableMap(projectsByKey);
+    });
+    synchronized (bindingIndexLock) {
+      // Don't keep an index built while bindings were changed
+      if (version == bindingIndexVersion) {
+        bindingIndex = index;
+      }
+    }
+    return index;
+  }
+
+  private void invalidateBindingIndex() {
+    synchronized (bindingIndexLock) {
+      bindingIndex = null;
+      bindingIndexVersion++;
+    }
+  }
+
   public Optional<ResolvedBinding> resolveBinding(ISonarLintProject project) {
     return resolveBinding(project, SonarLintCorePlugin.loadConfig(project));
   }
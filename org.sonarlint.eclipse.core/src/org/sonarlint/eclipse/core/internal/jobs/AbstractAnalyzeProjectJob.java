@@ -19,7 +19,6 @@
  */
 package org.sonarlint.eclipse.core.internal.jobs;
 
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -48,7 +47,6 @@ import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.Position;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IAnalysisConfigurator;
-import org.sonarlint.eclipse.core.analysis.IFileLanguageProvider;
 import org.sonarlint.eclipse.core.analysis.IPostAnalysisContext;
 import org.sonarlint.eclipse.core.configurator.ProjectConfigurationRequest;
 import org.sonarlint.eclipse.core.configurator.ProjectConfigurator;
@@ -62,10 +60,14 @@ import org.sonarlint.eclipse.core.internal.markers.TextRange;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.SonarLintProperty;
 import org.sonarlint.eclipse.core.internal.telemetry.SonarLintTelemetry;
+import org.sonarlint.eclipse.core.internal.tracking.AnalysisResultCache;
+import org.sonarlint.eclipse.core.internal.tracking.ContentHasher;
+import org.sonarlint.eclipse.core.internal.tracking.DocumentLineHashes;
 import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
 import org.sonarlint.eclipse.core.internal.tracking.RawIssueTrackable;
 import org.sonarlint.eclipse.core.internal.tracking.Trackable;
 import org.sonarlint.eclipse.core.internal.utils.FileExclusionsChecker;
+import org.sonarlint.eclipse.core.internal.utils.SonarLintUtils;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintIssuable;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
@@ -74,15 +76,23 @@ import org.sonarsource.sonarlint.core.client.api.common.analysis.AnalysisResults
 import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.exceptions.CanceledException;
-import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
 
 import static java.text.MessageFormat.format;
 
 public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisConfiguration> extends AbstractSonarProjectJob {
+
+  /**
+   * Maximum number of files analyzed in a single engine run. Larger analyses are split in batches, and markers of each batch are
+   * published as soon as it is done, so that results show up progressively and raw issues of only one batch are held in memory.
+   */
+  public static final int STREAMING_BATCH_SIZE = 500;
+
   private final List<SonarLintProperty> extraProps;
   private final TriggerType triggerType;
   private final boolean shouldClearReport;
   private final Collection<FileWithDocument> files;
+  // Only accessed by the job thread
+  private final Map<ISonarLintFile, EclipseInputFile> inputFilesByFile = new HashMap<>();
 
   public AbstractAnalyzeProjectJob(AnalyzeProjectRequest request) {
     super(jobTitle(request), request.getProject());
@@ -108,6 +118,15 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
 
   @Override
   protected IStatus doRun(final IProgressMonitor monitor) {
+    IStatus status = analyze(monitor);
+    if (!status.isOK()) {
+      // Markers restored from the previous session are only displayed until an analysis of their file completes
+      SonarLintMarkerUpdater.clearPendingMarkers(files.stream().map(FileWithDocument::getFile).collect(Collectors.toList()));
+    }
+    return status;
+  }
+
+  private IStatus analyze(final IProgressMonitor monitor) {
     if (monitor.isCanceled()) {
       return Status.CANCEL_STATUS;
     }
@@ -119,9 +138,12 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       Collection<ISonarLintFile> excludedFiles = new ArrayList<>();
       Collection<FileWithDocument> filesToAnalyze = new ArrayList<>();
 
+      // Evaluate exclusions of all files at once, to resolve the binding and call the engine for server side exclusions only once
       FileExclusionsChecker exclusionsChecker = new FileExclusionsChecker(getProject());
+      Collection<ISonarLintFile> notExcludedFiles = exclusionsChecker.filterExcludedFiles(getProject(),
+        files.stream().map(FileWithDocument::getFile).collect(Collectors.toList()));
       files.forEach(fWithDoc -> {
-        if (exclusionsChecker.isExcluded(fWithDoc.getFile(), true)) {
+        if (!notExcludedFiles.contains(fWithDoc.getFile())) {
           excludedFiles.add(fWithDoc.getFile());
         } else {
           filesToAnalyze.add(fWithDoc);
@@ -151,7 +173,7 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       Map<String, String> mergedExtraProps = new LinkedHashMap<>();
       Collection<ProjectConfigurator> usedDeprecatedConfigurators = configureDeprecated(getProject(), filesToAnalyzeMap.keySet(), mergedExtraProps, monitor);
 
-      analysisWorkDir = Files.createTempDirectory(getProject().getWorkingDir(), "sonarlint");
+      analysisWorkDir = SonarLintCorePlugin.getAnalysisWorkDirPool().lease(getProject());
       List<ClientInputFile> inputFiles = buildInputFiles(analysisWorkDir, filesToAnalyzeMap);
       Collection<IAnalysisConfigurator> usedConfigurators = configure(getProject(), inputFiles, mergedExtraProps, analysisWorkDir, monitor);
 
@@ -173,11 +195,7 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       return new Status(IStatus.WARNING, SonarLintCorePlugin.PLUGIN_ID, "Error when executing SonarLint analysis", e);
     } finally {
       if (analysisWorkDir != null) {
-        try {
-          FileUtils.deleteRecursively(analysisWorkDir);
-        } catch (Exception e) {
-          SonarLintLogger.get().debug("Unable to delete temp directory: " + analysisWorkDir, e);
-        }
+        SonarLintCorePlugin.getAnalysisWorkDirPool().release(analysisWorkDir);
       }
     }
 
@@ -190,17 +208,160 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     // In some unfrequent cases the project may be virtual and don't have physical location
     // so fallback to use analysis work dir
     Path projectBaseDir = projectLocation != null ? projectLocation.toFile().toPath() : analysisWorkDir;
-    CONFIG config = prepareAnalysisConfig(projectBaseDir, inputFiles, mergedExtraProps);
 
-    Map<ISonarLintIssuable, List<Issue>> issuesPerResource = new LinkedHashMap<>();
-    docPerFiles.keySet().forEach(slFile -> issuesPerResource.put(slFile, new ArrayList<>()));
+    AnalysisResultCache resultCache = SonarLintCorePlugin.getOrCreateAnalysisResultCache(getProject());
+    String configurationFingerprint = configurationFingerprint(mergedExtraProps);
+    // Computing a fingerprint hashes the content of the file, do it once per file
+    Map<ClientInputFile, String> fingerprints = new HashMap<>();
+    List<ClientInputFile> filesToRun = reuseCachedResults(docPerFiles, inputFiles, configurationFingerprint, fingerprints, resultCache, monitor);
+    if (filesToRun.isEmpty()) {
+      return;
+    }
+
+    List<List<ClientInputFile>> batches = partition(filesToRun, STREAMING_BATCH_SIZE);
+    if (batches.size() > 1) {
+      SonarLintLogger.get().debug(format("Analyzing {0} files in {1} batches", filesToRun.size(), batches.size()));
+    }
 
     long start = System.currentTimeMillis();
-    AnalysisResults result = run(config, issuesPerResource, monitor);
-    if (!monitor.isCanceled()) {
-      updateMarkers(docPerFiles, issuesPerResource, result, triggerType, monitor);
-      updateTelemetry(result, start);
+    for (List<ClientInputFile> batch : batches) {
+      if (monitor.isCanceled()) {
+        return;
+      }
+      CONFIG config = prepareAnalysisConfig(projectBaseDir, batch, mergedExtraProps);
+
+      Map<ISonarLintIssuable, List<Issue>> issuesPerResource = new LinkedHashMap<>();
+      batch.forEach(inputFile -> issuesPerResource.put(inputFile.<ISonarLintFile>getClientObject(), new ArrayList<>()));
+
+      AnalysisResults result = run(config, issuesPerResource, monitor);
+      if (monitor.isCanceled()) {
+        return;
+      }
+      Set<ISonarLintFile> failedFiles = result.failedAnalysisFiles().stream().map(ClientInputFile::<ISonarLintFile>getClientObject).collect(Collectors.toSet());
+      for (ClientInputFile inputFile : batch) {
+        String fingerprint = fingerprint(configurationFingerprint, fingerprints, inputFile);
+        if (fingerprint != null && !failedFiles.contains(inputFile.getClientObject())) {
+          resultCache.put(inputFile, fingerprint, issuesPerResource.get(inputFile.<ISonarLintFile>getClientObject()));
+        }
+      }
+      // Publish markers of this batch before analyzing the next one
+      updateMarkers(docPerFiles, issuesPerResource, failedFiles, triggerType, inputFiles.size(), monitor);
+      releaseSnapshots(batch);
+      if (batches.size() == 1) {
+        updateTelemetry(result, start);
+      }
+    }
+    if (batches.size() > 1) {
+      SonarLintCorePlugin.getTelemetry().analysisDoneOnMultipleFiles();
+    }
+  }
+
+  private String configurationFingerprint(Map<String, String> mergedExtraProps) {
+    AnalysisFingerprint fingerprint = new AnalysisFingerprint()
+      .add(SonarLintUtils.getPluginVersion())
+      .add(mergedExtraProps);
+    fingerprintConfiguration(fingerprint);
+    return fingerprint.build();
+  }
+
+  /**
+   * @return the fingerprint of the analysis of the file, or null if its content can't be read, in which case its result is not cached
+   */
+  @Nullable
+  private static String fingerprint(String configurationFingerprint, ClientInputFile inputFile) {
+    try {
+      return new AnalysisFingerprint()
+        .add(configurationFingerprint)
+        .add(inputFile.language())
+        .add(inputFile.isTest())
+        .add(inputFile.contents())
+        .build();
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to compute analysis fingerprint of " + inputFile.relativePath(), e);
+      return null;
+    }
+  }
+
+  @Nullable
+  private static String fingerprint(String configurationFingerprint, Map<ClientInputFile, String> fingerprints, ClientInputFile inputFile) {
+    // Can't use computeIfAbsent, that doesn't remember null values
+    if (!fingerprints.containsKey(inputFile)) {
+      fingerprints.put(inputFile, fingerprint(configurationFingerprint, inputFile));
+    }
+    return fingerprints.get(inputFile);
+  }
+
+  /**
+   * Add to the fingerprint the configuration that raw issues depend on, like active rules and versions of analyzers.
+   */
+  protected abstract void fingerprintConfiguration(AnalysisFingerprint fingerprint);
+
+  /**
+   * Update markers of files whose result of a previous analysis can be reused. Manual analyses always run the engine, in case
+   * raw issues depend on something not covered by the fingerprint, like the content of other files.
+   * @return the files that still have to be analyzed
+   */
+  private List<ClientInputFile> reuseCachedResults(Map<ISonarLintFile, IDocument> docPerFiles, List<ClientInputFile> inputFiles, String configurationFingerprint,
+    Map<ClientInputFile, String> fingerprints, AnalysisResultCache resultCache, IProgressMonitor monitor) throws CoreException {
+    if (!triggerType.isOnTheFly()) {
+      return inputFiles;
+    }
+    List<ClientInputFile> filesToRun = new ArrayList<>();
+    List<ClientInputFile> cachedFiles = new ArrayList<>();
+    Map<ISonarLintIssuable, List<Issue>> cachedIssuesPerResource = new LinkedHashMap<>();
+    for (ClientInputFile inputFile : inputFiles) {
+      String fingerprint = fingerprint(configurationFingerprint, fingerprints, inputFile);
+      Optional<List<Issue>> cachedIssues = fingerprint != null ? resultCache.get(inputFile, fingerprint) : Optional.empty();
+      if (cachedIssues.isPresent()) {
+        cachedFiles.add(inputFile);
+        cachedIssuesPerResource.put(inputFile.<ISonarLintFile>getClientObject(), cachedIssues.get());
+      } else {
+        filesToRun.add(inputFile);
+      }
+    }
+    if (!cachedIssuesPerResource.isEmpty()) {
+      SonarLintLogger.get().debug(format("Reusing previous analysis results of {0} unchanged file(s), cache hit rate {1}%",
+        cachedIssuesPerResource.size(), resultCache.getHitRate()));
+      updateMarkers(docPerFiles, cachedIssuesPerResource, Collections.emptySet(), triggerType, inputFiles.size(), monitor);
+      releaseSnapshots(cachedFiles);
+    }
+    return filesToRun;
+  }
+
+  /**
+   * Content of files is kept from the time it is first read until markers are updated. Release it once done with a batch,
+   * so that large analyses don't hold the content of all files.
+   */
+  private void releaseSnapshots(Collection<ClientInputFile> inputFiles) {
+    inputFiles.forEach(inputFile -> {
+      EclipseInputFile eclipseInputFile = inputFilesByFile.get(inputFile.<ISonarLintFile>getClientObject());
+      if (eclipseInputFile != null) {
+        eclipseInputFile.releaseSnapshot();
+      }
+    });
+  }
+
+  /**
+   * @return the document to use for files not opened in an editor, that is the content read for the analysis if available
+   */
+  private IDocument fileDocument(ISonarLintFile file) {
+    EclipseInputFile inputFile = inputFilesByFile.get(file);
+    return inputFile != null ? inputFile.getSnapshot().getDocument() : file.getDocument();
+  }
+
+  /**
+   * Split items in the smallest number of batches not exceeding the given size, with sizes as even as possible.
+   */
+  public static <T> List<List<T>> partition(List<T> items, int maxBatchSize) {
+    int batchCount = Math.max(1, (items.size() + maxBatchSize - 1) / maxBatchSize);
+    List<List<T>> batches = new ArrayList<>(batchCount);
+    int from = 0;
+    for (int i = 0; i < batchCount; i++) {
+      int to = from + (items.size() - from) / (batchCount - i);
+      batches.add(items.subList(from, to));
+      from = to;
     }
+    return batches;
   }
 
   protected abstract CONFIG prepareAnalysisConfig(Path projectBaseDir, List<ClientInputFile> inputFiles, Map<String, String> mergedExtraProps);
@@ -214,35 +375,21 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     }
   }
 
-  private static List<ClientInputFile> buildInputFiles(Path tempDirectory, final Map<ISonarLintFile, IDocument> filesToAnalyze) {
+  private List<ClientInputFile> buildInputFiles(Path tempDirectory, final Map<ISonarLintFile, IDocument> filesToAnalyze) {
     List<ClientInputFile> inputFiles = new ArrayList<>(filesToAnalyze.size());
+    FileClassificationCache classifications = SonarLintCorePlugin.getFileClassificationCache();
 
     for (final Map.Entry<ISonarLintFile, IDocument> fileWithDoc : filesToAnalyze.entrySet()) {
       ISonarLintFile file = fileWithDoc.getKey();
-      String language = tryDetectLanguage(file);
-      boolean isTest = TestFileClassifier.get().isTest(file);
-      ClientInputFile inputFile = new EclipseInputFile(isTest, file, tempDirectory, fileWithDoc.getValue(), language);
+      String language = classifications.language(file);
+      boolean isTest = classifications.isTest(file);
+      EclipseInputFile inputFile = new EclipseInputFile(isTest, file, tempDirectory, fileWithDoc.getValue(), language);
+      inputFilesByFile.put(file, inputFile);
       inputFiles.add(inputFile);
     }
     return inputFiles;
   }
 
-  @Nullable
-  private static String tryDetectLanguage(ISonarLintFile file) {
-    String language = null;
-    for (IFileLanguageProvider languageProvider : SonarLintExtensionTracker.getInstance().getLanguageProviders()) {
-      String detectedLanguage = languageProvider.language(file);
-      if (detectedLanguage != null) {
-        if (language == null) {
-          language = detectedLanguage;
-        } else if (!language.equals(detectedLanguage)) {
-          SonarLintLogger.get().error("Conflicting languages detected for file " + file.getName() + ". " + language + " and " + detectedLanguage);
-        }
-      }
-    }
-    return language;
-  }
-
   private static Collection<ProjectConfigurator> configureDeprecated(final ISonarLintProject project, Collection<ISonarLintFile> filesToAnalyze,
     final Map<String, String> extraProperties,
     final IProgressMonitor monitor) {
@@ -281,21 +428,24 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
     return usedConfigurators;
   }
 
-  private void updateMarkers(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> issuesPerResource, AnalysisResults result,
-    TriggerType triggerType, final IProgressMonitor monitor)
+  private void updateMarkers(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> issuesPerResource, Set<ISonarLintFile> failedFiles,
+    TriggerType triggerType, int totalTrackedFiles, final IProgressMonitor monitor)
     throws CoreException {
-    Set<ISonarLintFile> failedFiles = result.failedAnalysisFiles().stream().map(ClientInputFile::<ISonarLintFile>getClientObject).collect(Collectors.toSet());
     Map<ISonarLintIssuable, List<Issue>> successfulFiles = issuesPerResource.entrySet().stream()
       .filter(e -> !failedFiles.contains(e.getKey()))
       // TODO handle non-file-level issues
       .filter(e -> e.getKey() instanceof ISonarLintFile)
       .collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 
-    ResourcesPlugin.getWorkspace().run(m -> trackIssues(docPerFile, successfulFiles, triggerType, m), monitor);
+    ResourcesPlugin.getWorkspace().run(m -> trackIssues(docPerFile, successfulFiles, triggerType, totalTrackedFiles, m), monitor);
   }
 
+  /**
+   * Track issues of a batch of analyzed files and update their markers.
+   * @param totalTrackedFiles number of files of the whole analysis, that can be more than the files of this batch
+   */
   protected void trackIssues(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, TriggerType triggerType,
-    final IProgressMonitor monitor) {
+    int totalTrackedFiles, final IProgressMonitor monitor) {
 
     for (Map.Entry<ISonarLintIssuable, List<Issue>> entry : rawIssuesPerResource.entrySet()) {
       if (monitor.isCanceled()) {
@@ -307,16 +457,16 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       List<Issue> rawIssues = entry.getValue();
       List<Trackable> trackables;
       if (!rawIssues.isEmpty()) {
-        IDocument document = openedDocument.orElseGet(file::getDocument);
+        IDocument document = openedDocument.orElseGet(() -> fileDocument(file));
         trackables = rawIssues.stream().map(issue -> transform(issue, file, document)).collect(Collectors.toList());
       } else {
         trackables = Collections.emptyList();
       }
-      Collection<Trackable> tracked = trackFileIssues(file, trackables, issueTracker, triggerType, rawIssuesPerResource.size());
+      Collection<Trackable> tracked = trackFileIssues(file, trackables, issueTracker, triggerType, totalTrackedFiles);
       ISchedulingRule markerRule = ResourcesPlugin.getWorkspace().getRuleFactory().markerRule(file.getResource());
       try {
         getJobManager().beginRule(markerRule, monitor);
-        SonarLintMarkerUpdater.createOrUpdateMarkers(file, openedDocument, tracked, triggerType);
+        SonarLintMarkerUpdater.createOrUpdateMarkers(file, openedDocument, () -> fileDocument(file), tracked, triggerType);
       } finally {
         getJobManager().endRule(markerRule);
       }
@@ -335,17 +485,17 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
       return new RawIssueTrackable(issue);
     }
     TextRange textRange = TextRange.get(startLine, issue.getStartLineOffset(), issue.getEndLine(), issue.getEndLineOffset());
-    String textRangeContent = readTextRangeContent(resource, document, textRange);
-    String lineContent = readLineContent(resource, document, startLine);
-    return new RawIssueTrackable(issue, textRange, textRangeContent, lineContent);
+    Integer lineHash = hashLineContent(resource, document, startLine);
+    Integer textRangeHash = textRange.isLineOnly() ? lineHash : hashTextRangeContent(resource, document, textRange);
+    return new RawIssueTrackable(issue, textRange, textRangeHash, lineHash);
   }
 
   @Nullable
-  private static String readTextRangeContent(ISonarLintFile resource, IDocument document, TextRange textRange) {
+  private static Integer hashTextRangeContent(ISonarLintFile resource, IDocument document, TextRange textRange) {
     Position position = MarkerUtils.getPosition(document, textRange);
     if (position != null) {
       try {
-        return document.get(position.getOffset(), position.getLength());
+        return ContentHasher.checksum(document, position.getOffset(), position.getLength());
       } catch (BadLocationException e) {
         SonarLintLogger.get().error("failed to get text range content of resource " + resource.getName(), e);
       }
@@ -354,14 +504,11 @@ public abstract class AbstractAnalyzeProjectJob<CONFIG extends AbstractAnalysisC
   }
 
   @Nullable
-  private static String readLineContent(ISonarLintFile resource, IDocument document, int startLine) {
-    Position position = MarkerUtils.getPosition(document, startLine);
-    if (position != null) {
-      try {
-        return document.get(position.getOffset(), position.getLength());
-      } catch (BadLocationException e) {
-        SonarLintLogger.get().error("Failed to get line content of file " + resource.getName(), e);
-      }
+  private static Integer hashLineContent(ISonarLintFile resource, IDocument document, int startLine) {
+    try {
+      return DocumentLineHashes.get(document, startLine);
+    } catch (BadLocationException e) {
+      SonarLintLogger.get().error("Failed to get line content of file " + resource.getName(), e);
     }
     return null;
   }
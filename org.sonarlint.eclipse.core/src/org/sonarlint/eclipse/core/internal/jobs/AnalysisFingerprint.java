@@ -0,0 +1,95 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Digest of everything raw issues of an analysis depend on, used to know if the result of a previous analysis can be reused.
+ * Values are length prefixed, so that different sequences of values can't produce the same digest.
+ */
+public class AnalysisFingerprint {
+
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+  private final MessageDigest digest;
+
+  public AnalysisFingerprint() {
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 algorithm not available", e);
+    }
+  }
+
+  public AnalysisFingerprint add(@Nullable String value) {
+    if (value == null) {
+      update(-1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      update(bytes.length);
+      digest.update(bytes);
+    }
+    return this;
+  }
+
+  public AnalysisFingerprint add(boolean value) {
+    return add(Boolean.toString(value));
+  }
+
+  public AnalysisFingerprint add(@Nullable Object value) {
+    return add(value != null ? value.toString() : null);
+  }
+
+  /**
+   * Add entries of the map, in the order of their keys.
+   */
+  public AnalysisFingerprint add(Map<String, String> values) {
+    Map<String, String> sorted = new TreeMap<>(values);
+    update(sorted.size());
+    sorted.forEach((k, v) -> add(k).add(v));
+    return this;
+  }
+
+  private void update(int value) {
+    digest.update((byte) (value >>> 24));
+    digest.update((byte) (value >>> 16));
+    digest.update((byte) (value >>> 8));
+    digest.update((byte) value);
+  }
+
+  /**
+   * @return the hexadecimal digest of values added so far, after which the fingerprint is reset
+   */
+  public String build() {
+    byte[] data = digest.digest();
+    char[] out = new char[data.length << 1];
+    for (int i = 0, j = 0; i < data.length; ++i, j += 2) {
+      out[j] = DIGITS[(240 & data[i]) >>> 4];
+      out[j + 1] = DIGITS[15 & data[i]];
+    }
+    return new String(out);
+  }
+}
@@ -0,0 +1,217 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+/**
+ * Schedules on-the-fly analyses, so that rapid saves and editor activations don't queue several analyses of the same files.
+ * <ul>
+ * <li>requests for a project arriving within {@link #DEBOUNCE_MS} are merged into a single analysis</li>
+ * <li>an analysis that is waiting or running is cancelled when a newer one covers all of its files</li>
+ * </ul>
+ */
+public class AnalysisScheduler {
+
+  public static final long DEBOUNCE_MS = 300;
+
+  private final Function<AnalyzeProjectRequest, Job> jobFactory;
+  private final long debounceMs;
+  private final Map<ISonarLintProject, PendingAnalysis> pendingByProject = new HashMap<>();
+  private final Map<ISonarLintFile, RunningAnalysis> runningByFile = new HashMap<>();
+  private long requestCount;
+  private long mergedCount;
+  private long supersededCount;
+
+  public AnalysisScheduler() {
+    this(AbstractAnalyzeProjectJob::create, DEBOUNCE_MS);
+  }
+
+  public AnalysisScheduler(Function<AnalyzeProjectRequest, Job> jobFactory, long debounceMs) {
+    this.jobFactory = jobFactory;
+    this.debounceMs = debounceMs;
+  }
+
+  private class PendingAnalysis {
+    private final ISonarLintProject project;
+    private final Map<ISonarLintFile, FileWithDocument> files = new LinkedHashMap<>();
+    private final LaunchJob launchJob;
+    private TriggerType triggerType;
+    private boolean shouldClearReport;
+
+    PendingAnalysis(ISonarLintProject project) {
+      this.project = project;
+      this.launchJob = new LaunchJob(project);
+    }
+
+    void add(AnalyzeProjectRequest request) {
+      // The most recent document of a file wins, but a file opened in an editor must still be analyzed with its document
+      request.getFiles().forEach(f -> files.merge(f.getFile(), f,
+        (previous, latest) -> latest.getDocument() == null && previous.getDocument() != null ? previous : latest));
+      // Don't lose a server issue update requested by a merged trigger
+      triggerType = triggerType == null ? request.getTriggerType() : request.getTriggerType().withStrongestServerIssueUpdate(triggerType);
+      shouldClearReport |= request.shouldClearReport();
+    }
+
+    AnalyzeProjectRequest toRequest() {
+      return new AnalyzeProjectRequest(project, new ArrayList<>(files.values()), triggerType, shouldClearReport);
+    }
+  }
+
+  private static class RunningAnalysis {
+    private final Job job;
+    private final Set<ISonarLintFile> files;
+
+    RunningAnalysis(Job job, Set<ISonarLintFile> files) {
+      this.job = job;
+      this.files = files;
+    }
+  }
+
+  private class LaunchJob extends Job {
+    private final ISonarLintProject project;
+
+    LaunchJob(ISonarLintProject project) {
+      super("Schedule SonarLint analysis of " + project.getName());
+      this.project = project;
+      setPriority(DECORATE);
+      setSystem(true);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      launch(project);
+      return Status.OK_STATUS;
+    }
+
+    // Joining analyses should wait for those not launched yet
+    @Override
+    public boolean belongsTo(Object family) {
+      return AbstractSonarProjectJob.FAMILY.equals(family);
+    }
+  }
+
+  /**
+   * Schedule the analysis of the files of the request, after a short delay to merge it with subsequent requests for the same project.
+   */
+  public void schedule(AnalyzeProjectRequest request) {
+    ISonarLintProject project = request.getProject();
+    synchronized (this) {
+      requestCount++;
+      PendingAnalysis pending = pendingByProject.get(project);
+      if (pending != null) {
+        mergedCount++;
+        pending.add(request);
+        return;
+      }
+      pending = new PendingAnalysis(project);
+      pending.add(request);
+      pendingByProject.put(project, pending);
+      pending.launchJob.schedule(debounceMs);
+    }
+  }
+
+  private void launch(ISonarLintProject project) {
+    PendingAnalysis pending;
+    synchronized (this) {
+      pending = pendingByProject.remove(project);
+    }
+    if (pending == null) {
+      return;
+    }
+    // Creating the job reads the project configuration, don't hold the lock meanwhile
+    Job job = jobFactory.apply(pending.toRequest());
+    RunningAnalysis running = new RunningAnalysis(job, new HashSet<>(pending.files.keySet()));
+    List<Job> superseded;
+    synchronized (this) {
+      superseded = running.files.stream()
+        .map(runningByFile::get)
+        .filter(Objects::nonNull)
+        .distinct()
+        .filter(previous -> running.files.containsAll(previous.files))
+        .map(previous -> previous.job)
+        .collect(Collectors.toList());
+      supersededCount += superseded.size();
+      running.files.forEach(f -> runningByFile.put(f, running));
+    }
+    job.addJobChangeListener(new JobChangeAdapter() {
+      @Override
+      public void done(IJobChangeEvent event) {
+        synchronized (AnalysisScheduler.this) {
+          running.files.forEach(f -> runningByFile.remove(f, running));
+        }
+      }
+    });
+    superseded.forEach(Job::cancel);
+    job.schedule();
+  }
+
+  public synchronized long getRequestCount() {
+    return requestCount;
+  }
+
+  /**
+   * @return number of requests merged into the pending analysis of the same project
+   */
+  public synchronized long getMergedCount() {
+    return mergedCount;
+  }
+
+  /**
+   * @return number of analyses cancelled because a newer one covered all of their files
+   */
+  public synchronized long getSupersededCount() {
+    return supersededCount;
+  }
+
+  /**
+   * Drop analyses not started yet.
+   */
+  public void shutdown() {
+    List<PendingAnalysis> pendings;
+    synchronized (this) {
+      SonarLintLogger.get().debug(String.format("Analysis scheduler statistics: %d request(s), %d analysis(es) saved (%d merged, %d superseded)",
+        requestCount, mergedCount + supersededCount, mergedCount, supersededCount));
+      pendings = new ArrayList<>(pendingByProject.values());
+      pendingByProject.clear();
+    }
+    pendings.forEach(p -> p.launchJob.cancel());
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.StoragePathManager;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+/**
+ * Pool of analysis work directories, reused across analyses of a project instead of creating and deleting a temporary directory
+ * for each of them.
+ * <p>
+ * Released directories are emptied by a background job, so that analyses don't pay for the deletion of the files left by the
+ * previous one. A directory is only emptied synchronously when a lease finds no clean one, but a dirty one.
+ * <p>
+ * Nothing is leased when a pool is created, since a workspace is only used by one Eclipse instance at a time. Directories found
+ * at that time, left by a previous session that may have crashed, are reclaimed as dirty, and temporary directories of older
+ * versions are deleted.
+ */
+public class AnalysisWorkDirPool {
+
+  /**
+   * Clean directories kept per project, in addition to the ones leased. Others are deleted once released.
+   */
+  static final int MAX_IDLE_DIRS = 2;
+  private static final String WORK_DIR_PREFIX = "work";
+  private static final Pattern LEGACY_TEMP_DIR = Pattern.compile("sonarlint\\d+");
+
+  private final Map<Path, ProjectPool> poolsByRoot = new HashMap<>();
+  private final Deque<Path> toDelete = new ArrayDeque<>();
+  private final Job cleanupJob = new CleanupJob();
+
+  private static class ProjectPool {
+    private final Deque<Path> clean = new ArrayDeque<>();
+    private final Deque<Path> dirty = new ArrayDeque<>();
+  }
+
+  /**
+   * @return an empty directory, that should be released with {@link #release(Path)} once the analysis is done
+   */
+  public Path lease(ISonarLintProject project) throws IOException {
+    Path root = StoragePathManager.getAnalysisWorkDirsDir(project);
+    Path dir;
+    boolean needsCleaning = false;
+    synchronized (this) {
+      ProjectPool pool = poolsByRoot.computeIfAbsent(root, r -> reclaim(project, r));
+      dir = pool.clean.poll();
+      if (dir == null) {
+        dir = pool.dirty.poll();
+        needsCleaning = dir != null;
+      }
+    }
+    if (dir == null) {
+      Files.createDirectories(root);
+      return Files.createTempDirectory(root, WORK_DIR_PREFIX);
+    }
+    if (needsCleaning) {
+      empty(dir);
+    }
+    // The directory may have been deleted in the meantime
+    Files.createDirectories(dir);
+    return dir;
+  }
+
+  public void release(Path dir) {
+    synchronized (this) {
+      ProjectPool pool = poolsByRoot.get(dir.getParent());
+      if (pool != null) {
+        pool.dirty.add(dir);
+      } else {
+        toDelete.add(dir);
+      }
+    }
+    cleanupJob.schedule();
+  }
+
+  private ProjectPool reclaim(ISonarLintProject project, Path root) {
+    ProjectPool pool = new ProjectPool();
+    if (Files.isDirectory(root)) {
+      try (Stream<Path> children = Files.list(root)) {
+        children.forEach(pool.dirty::add);
+      } catch (IOException e) {
+        SonarLintLogger.get().debug("Unable to list analysis work directories of " + project.getName(), e);
+      }
+    }
+    Path workingDir = project.getWorkingDir();
+    if (Files.isDirectory(workingDir)) {
+      try (Stream<Path> children = Files.list(workingDir)) {
+        children
+          .filter(p -> LEGACY_TEMP_DIR.matcher(p.getFileName().toString()).matches())
+          .forEach(toDelete::add);
+      } catch (IOException e) {
+        SonarLintLogger.get().debug("Unable to list working directory of " + project.getName(), e);
+      }
+    }
+    if (!pool.dirty.isEmpty() || !toDelete.isEmpty()) {
+      cleanupJob.schedule();
+    }
+    return pool;
+  }
+
+  /**
+   * Empty released directories, and delete the ones exceeding {@link #MAX_IDLE_DIRS}.
+   */
+  private IStatus cleanReleasedDirs(IProgressMonitor monitor) {
+    while (!monitor.isCanceled()) {
+      ProjectPool pool = null;
+      Path dir;
+      boolean keep = false;
+      synchronized (this) {
+        dir = toDelete.poll();
+        if (dir == null) {
+          pool = nextDirtyPool();
+          if (pool == null) {
+            return Status.OK_STATUS;
+          }
+          dir = pool.dirty.poll();
+          keep = pool.clean.size() < MAX_IDLE_DIRS;
+        }
+      }
+      if (keep) {
+        empty(dir);
+        synchronized (this) {
+          pool.clean.add(dir);
+        }
+      } else {
+        delete(dir);
+      }
+    }
+    return Status.CANCEL_STATUS;
+  }
+
+  @Nullable
+  private ProjectPool nextDirtyPool() {
+    return poolsByRoot.values().stream().filter(p -> !p.dirty.isEmpty()).findFirst().orElse(null);
+  }
+
+  private static void empty(Path dir) {
+    if (!Files.isDirectory(dir)) {
+      return;
+    }
+    try (Stream<Path> children = Files.list(dir)) {
+      children.forEach(AnalysisWorkDirPool::delete);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to clean analysis work directory " + dir, e);
+    }
+  }
+
+  private static void delete(Path path) {
+    try {
+      FileUtils.deleteRecursively(path);
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to delete " + path, e);
+    }
+  }
+
+  /**
+   * Wait for released directories to be cleaned.
+   */
+  public void joinCleanup() throws InterruptedException {
+    Job.getJobManager().join(this, null);
+  }
+
+  /**
+   * Stop cleaning. Directories left dirty are reclaimed by the next session.
+   */
+  public void shutdown() {
+    cleanupJob.cancel();
+  }
+
+  private class CleanupJob extends Job {
+
+    CleanupJob() {
+      super("Clean SonarLint analysis work directories");
+      setSystem(true);
+      setPriority(DECORATE);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      return cleanReleasedDirs(monitor);
+    }
+
+    @Override
+    public boolean belongsTo(Object family) {
+      return family == AnalysisWorkDirPool.this;
+    }
+  }
+}
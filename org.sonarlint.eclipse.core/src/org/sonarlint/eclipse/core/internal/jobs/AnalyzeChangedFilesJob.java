@@ -68,25 +68,13 @@ public class AnalyzeChangedFilesJob extends WorkspaceJob {
       SonarLintLogger.get().info("Analyzing " + fileCount + " changed file(s) in " + changedFilesPerProject.size() + " project(s)");
 
       global.setTaskName("Analysis");
-      SubMonitor analysisMonitor = SubMonitor.convert(global.newChild(80), changedFilesPerProject.size());
-      for (Map.Entry<ISonarLintProject, List<ISonarLintFile>> entry : changedFilesPerProject.entrySet()) {
-        if (monitor.isCanceled()) {
-          return Status.CANCEL_STATUS;
-        }
-        ISonarLintProject project = entry.getKey();
-        if (!project.isOpen()) {
-          analysisMonitor.worked(1);
-          continue;
-        }
-        global.setTaskName("Analyzing project " + project.getName());
-        Collection<FileWithDocument> filesToAnalyze = entry.getValue().stream()
+      Map<ISonarLintProject, List<FileWithDocument>> filesToAnalyzePerProject = changedFilesPerProject.entrySet().stream()
+        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().stream()
           .map(f -> new FileWithDocument(f, null))
-          .collect(Collectors.toList());
-        AnalyzeProjectRequest req = new AnalyzeProjectRequest(project, filesToAnalyze, TriggerType.MANUAL_CHANGESET);
-        AbstractSonarProjectJob job = AbstractAnalyzeProjectJob.create(req);
-        SubMonitor subMonitor = analysisMonitor.newChild(1);
-        job.run(subMonitor);
-        subMonitor.done();
+          .collect(Collectors.toList())));
+      IStatus status = new ParallelProjectsAnalyzer().analyze(filesToAnalyzePerProject, TriggerType.MANUAL_CHANGESET, global.newChild(80));
+      if (status.matches(IStatus.CANCEL)) {
+        return Status.CANCEL_STATUS;
       }
 
     } catch (Exception e) {
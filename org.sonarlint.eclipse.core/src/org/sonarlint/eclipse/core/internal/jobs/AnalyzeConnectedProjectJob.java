@@ -42,6 +42,8 @@ import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedAnalysisConfiguration;
 import org.sonarsource.sonarlint.core.client.api.connected.ConnectedSonarLintEngine;
+import org.sonarsource.sonarlint.core.client.api.connected.GlobalStorageStatus;
+import org.sonarsource.sonarlint.core.client.api.connected.ProjectStorageStatus;
 import org.sonarsource.sonarlint.core.client.api.connected.ServerConfiguration;
 import org.sonarsource.sonarlint.core.client.api.connected.ServerIssue;
 
@@ -49,6 +51,7 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
 
   private final EclipseProjectBinding binding;
   private final ConnectedEngineFacade server;
+  private boolean projectServerIssuesDownloaded;
 
   public AnalyzeConnectedProjectJob(AnalyzeProjectRequest request, EclipseProjectBinding binding, ConnectedEngineFacade server) {
     super(request);
@@ -67,6 +70,19 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
       .build();
   }
 
+  @Override
+  protected void fingerprintConfiguration(AnalysisFingerprint fingerprint) {
+    // Analyzers and quality profiles come from the storage, so any update of the storage invalidates previous results
+    ConnectedSonarLintEngine engine = server.getEngine();
+    GlobalStorageStatus globalStorageStatus = engine.getGlobalStorageStatus();
+    ProjectStorageStatus projectStorageStatus = engine.getProjectStorageStatus(binding.projectKey());
+    fingerprint
+      .add(binding.connectionId())
+      .add(binding.projectKey())
+      .add(globalStorageStatus != null ? globalStorageStatus.getLastUpdateDate().getTime() : null)
+      .add(projectStorageStatus != null ? projectStorageStatus.getLastUpdateDate().getTime() : null);
+  }
+
   @Override
   protected AnalysisResults runAnalysis(ConnectedAnalysisConfiguration analysisConfig, SonarLintIssueListener issueListener, IProgressMonitor monitor) {
     return server.runAnalysis(analysisConfig, issueListener, monitor);
@@ -74,14 +90,16 @@ public class AnalyzeConnectedProjectJob extends AbstractAnalyzeProjectJob<Connec
 
   @Override
   protected void trackIssues(Map<ISonarLintFile, IDocument> docPerFile, Map<ISonarLintIssuable, List<Issue>> rawIssuesPerResource, TriggerType triggerType,
-    IProgressMonitor monitor) {
-    if (triggerType.shouldUpdateProjectIssuesSync(rawIssuesPerResource.size())) {
+    int totalTrackedFiles, IProgressMonitor monitor) {
+    // Issues of the whole project only need to be downloaded once, before tracking the first batch
+    if (!projectServerIssuesDownloaded && triggerType.shouldUpdateProjectIssuesSync(totalTrackedFiles)) {
+      projectServerIssuesDownloaded = true;
       ServerConfiguration serverConfiguration = server.getConfig();
       ConnectedSonarLintEngine engine = server.getEngine();
       SonarLintLogger.get().debug("Download server issues for project " + getProject().getName());
       engine.downloadServerIssues(serverConfiguration, binding.projectKey());
     }
-    super.trackIssues(docPerFile, rawIssuesPerResource, triggerType, monitor);
+    super.trackIssues(docPerFile, rawIssuesPerResource, triggerType, totalTrackedFiles, monitor);
     if (triggerType.shouldUpdateFileIssuesAsync()) {
       List<ISonarLintIssuable> filesWithAtLeastOneIssue = filesWithAtLeastOneIssue(rawIssuesPerResource);
       if (!filesWithAtLeastOneIssue.isEmpty()) {
@@ -49,22 +49,9 @@ public class AnalyzeProjectsJob extends WorkspaceJob {
     try {
       global.setTaskName("Analysis");
       SonarLintMarkerUpdater.deleteAllMarkersFromReport();
-      SubMonitor analysisMonitor = SubMonitor.convert(global.newChild(100), filesPerProject.size());
-      for (Map.Entry<ISonarLintProject, Collection<FileWithDocument>> entry : filesPerProject.entrySet()) {
-        if (monitor.isCanceled()) {
-          return Status.CANCEL_STATUS;
-        }
-        ISonarLintProject project = entry.getKey();
-        if (!project.isOpen()) {
-          analysisMonitor.worked(1);
-          continue;
-        }
-        global.setTaskName("Analyzing project " + project.getName());
-        AnalyzeProjectRequest req = new AnalyzeProjectRequest(project, entry.getValue(), TriggerType.MANUAL);
-        AbstractSonarProjectJob job = AbstractAnalyzeProjectJob.create(req);
-        SubMonitor subMonitor = analysisMonitor.newChild(1);
-        job.run(subMonitor);
-        subMonitor.done();
+      IStatus status = new ParallelProjectsAnalyzer().analyze(filesPerProject, TriggerType.MANUAL, global.newChild(100));
+      if (status.matches(IStatus.CANCEL)) {
+        return Status.CANCEL_STATUS;
       }
 
     } catch (Exception e) {
@@ -21,6 +21,7 @@ package org.sonarlint.eclipse.core.internal.jobs;
 
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -59,6 +60,14 @@ public class AnalyzeStandaloneProjectJob extends AbstractAnalyzeProjectJob<Stand
       .build();
   }
 
+  @Override
+  protected void fingerprintConfiguration(AnalysisFingerprint fingerprint) {
+    // Analyzers are embedded, so their versions are covered by the version of SonarLint
+    rulesConfig.stream()
+      .sorted(Comparator.comparing(RuleConfig::getKey))
+      .forEach(r -> fingerprint.add(r.getKey()).add(r.isActive()).add(r.getParams()));
+  }
+
   @Override
   protected AnalysisResults runAnalysis(StandaloneAnalysisConfiguration analysisConfig, SonarLintIssueListener issueListener, IProgressMonitor monitor) {
     StandaloneEngineFacade standaloneEngine = SonarLintCorePlugin.getInstance().getDefaultSonarLintClientFacade();
@@ -28,10 +28,14 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.IDocument;
+import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
 
@@ -40,14 +44,22 @@ import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile
  *   - either a IDocument is provided, which mean the file is open in an editor
  *   - if document is <code>null</code> then file is not open but that doesn't mean we can read from FS, since the file might be stored on a remote FS
  *
+ * When the file is not open and is on the local FS, it is read directly from disk, with its own charset.
  */
 class EclipseInputFile implements ClientInputFile {
+  private static final String BYTE_ORDER_MARK = "\uFEFF";
+
   private final boolean isTestFile;
   private final ISonarLintFile file;
   private final String language;
   private final IDocument editorDocument;
   private final Path tempDirectory;
   private Path filePath;
+  private FileContentSnapshot snapshot;
+  @Nullable
+  private String snapshotAttributes;
+  private boolean localFileResolved;
+  private Path localFile;
 
   EclipseInputFile(boolean isTestFile, ISonarLintFile file, Path tempDirectory, @Nullable IDocument editorDocument, @Nullable String language) {
     this.isTestFile = isTestFile;
@@ -99,7 +111,22 @@ class EclipseInputFile implements ClientInputFile {
 
   @Override
   public Charset getCharset() {
-    return StandardCharsets.UTF_8;
+    return localFile() != null ? file.getCharset() : StandardCharsets.UTF_8;
+  }
+
+  /**
+   * @return the file on disk when the file is not open, and is on the local FS
+   */
+  @Nullable
+  private synchronized Path localFile() {
+    if (!localFileResolved) {
+      localFileResolved = true;
+      IPath location = editorDocument == null && file.getResource() instanceof IFile ? file.getResource().getLocation() : null;
+      if (location != null && location.toFile().isFile()) {
+        localFile = location.toFile().toPath();
+      }
+    }
+    return localFile;
   }
 
   @Override
@@ -114,16 +141,76 @@ class EclipseInputFile implements ClientInputFile {
 
   @Override
   public String contents() throws IOException {
+    return getSnapshot().getContent();
+  }
+
+  @Override
+  public InputStream inputStream() throws IOException {
+    Path path = localFile();
+    if (path != null && isSnapshotStillOnDisk(path)) {
+      return Files.newInputStream(path);
+    }
+    return new ByteArrayInputStream(getSnapshot().getBytes());
+  }
+
+  /**
+   * The engine reads the file from disk, to not hold an encoded copy of the content, unless the file was changed since the snapshot
+   * was read, in which case the snapshot is encoded so that the engine and SonarLint see the same content.
+   */
+  private synchronized boolean isSnapshotStillOnDisk(Path path) {
+    getSnapshot();
+    if (snapshotAttributes == null) {
+      return false;
+    }
+    try {
+      return snapshotAttributes.equals(readAttributes(path));
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Content is read on first access, so that the engine and SonarLint see the same content during the analysis.
+   */
+  synchronized FileContentSnapshot getSnapshot() {
+    if (snapshot == null) {
+      snapshot = readSnapshot();
+    }
+    return snapshot;
+  }
+
+  private FileContentSnapshot readSnapshot() {
     // Prefer to use editor Document when file is already opened in an editor
     if (editorDocument != null) {
-      return editorDocument.get();
+      return new FileContentSnapshot(editorDocument.get(), getCharset());
     }
-    return file.getDocument().get();
+    Path path = localFile();
+    if (path != null) {
+      try {
+        // Read before the content, so that a change made while reading is detected
+        snapshotAttributes = readAttributes(path);
+        String content = new String(Files.readAllBytes(path), file.getCharset());
+        // Like file buffers, don't include the byte order mark in the content
+        return new FileContentSnapshot(content.startsWith(BYTE_ORDER_MARK) ? content.substring(1) : content, file.getCharset());
+      } catch (IOException e) {
+        snapshotAttributes = null;
+        SonarLintLogger.get().debug("Unable to read " + path + ", falling back to file buffer", e);
+      }
+    }
+    return new FileContentSnapshot(file.getDocument().get(), getCharset());
   }
 
-  @Override
-  public InputStream inputStream() throws IOException {
-    return new ByteArrayInputStream(contents().getBytes(getCharset()));
+  /**
+   * @return modification time and size of the file, to check that the content on disk is still the one of the snapshot
+   */
+  private static String readAttributes(Path path) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+    return attributes.lastModifiedTime().toMillis() + "/" + attributes.size();
+  }
+
+  synchronized void releaseSnapshot() {
+    snapshot = null;
+    snapshotAttributes = null;
   }
 
 }
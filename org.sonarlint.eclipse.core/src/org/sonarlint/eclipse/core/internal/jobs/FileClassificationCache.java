@@ -0,0 +1,195 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.analysis.IFileLanguageProvider;
+import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
+import org.sonarlint.eclipse.core.resource.ISonarLintFile;
+
+/**
+ * Remember the language and the test/main classification of files, to not call language and type providers again for every analysis.
+ * <p>
+ * Classifications are assumed to depend on the path of the file and on the settings of its project, not on its content. So they are
+ * forgotten when a file is moved or deleted, when a project is closed or its settings are changed (.classpath, .project, .cproject, files
+ * in .settings), and when test file patterns are reloaded.
+ */
+public class FileClassificationCache implements IResourceChangeListener {
+
+  private static final String PROJECT_SETTINGS_FOLDER = ".settings";
+
+  // Keyed by project resource, then by file resource, since we don't know if ISonarLintFile instances are implementing hashcode
+  private final Map<IResource, ProjectClassifications> classificationsByProject = new ConcurrentHashMap<>();
+  private boolean listening;
+  private boolean shutdown;
+
+  private static class ProjectClassifications {
+    private final Map<IResource, Optional<String>> languages = new ConcurrentHashMap<>();
+    private final Map<IResource, Boolean> tests = new ConcurrentHashMap<>();
+
+    void remove(IResource file) {
+      languages.remove(file);
+      tests.remove(file);
+    }
+  }
+
+  @Nullable
+  public String language(ISonarLintFile file) {
+    Map<IResource, Optional<String>> languages = classificationsOf(file).languages;
+    Optional<String> language = languages.get(file.getResource());
+    if (language == null) {
+      language = Optional.ofNullable(detectLanguage(file));
+      languages.put(file.getResource(), language);
+    }
+    return language.orElse(null);
+  }
+
+  public boolean isTest(ISonarLintFile file) {
+    Map<IResource, Boolean> tests = classificationsOf(file).tests;
+    Boolean isTest = tests.get(file.getResource());
+    if (isTest == null) {
+      isTest = TestFileClassifier.get().isTest(file);
+      tests.put(file.getResource(), isTest);
+    }
+    return isTest;
+  }
+
+  /**
+   * Forget all classifications. Should be called when test file patterns or language/type providers are changed.
+   */
+  public void clear() {
+    classificationsByProject.clear();
+  }
+
+  public synchronized void shutdown() {
+    shutdown = true;
+    if (listening) {
+      ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+      listening = false;
+    }
+    clear();
+  }
+
+  private ProjectClassifications classificationsOf(ISonarLintFile file) {
+    startListening();
+    return classificationsByProject.computeIfAbsent(file.getProject().getResource(), p -> new ProjectClassifications());
+  }
+
+  private synchronized void startListening() {
+    if (!listening && !shutdown) {
+      ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+      listening = true;
+    }
+  }
+
+  @Nullable
+  private static String detectLanguage(ISonarLintFile file) {
+    String language = null;
+    for (IFileLanguageProvider languageProvider : SonarLintExtensionTracker.getInstance().getLanguageProviders()) {
+      String detectedLanguage = languageProvider.language(file);
+      if (detectedLanguage != null) {
+        if (language == null) {
+          language = detectedLanguage;
+        } else if (!language.equals(detectedLanguage)) {
+          SonarLintLogger.get().error("Conflicting languages detected for file " + file.getName() + ". " + language + " and " + detectedLanguage);
+        }
+      }
+    }
+    return language;
+  }
+
+  @Override
+  public void resourceChanged(IResourceChangeEvent event) {
+    IResourceDelta delta = event.getDelta();
+    if (delta == null || classificationsByProject.isEmpty()) {
+      return;
+    }
+    for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+      IResource project = projectDelta.getResource();
+      ProjectClassifications classifications = classificationsByProject.get(project);
+      if (classifications == null) {
+        continue;
+      }
+      if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+        classificationsByProject.remove(project);
+        continue;
+      }
+      ProjectDeltaVisitor visitor = new ProjectDeltaVisitor(classifications);
+      try {
+        projectDelta.accept(visitor);
+      } catch (CoreException e) {
+        SonarLintLogger.get().debug("Unable to process changes of project " + project.getName(), e);
+        visitor.settingsChanged = true;
+      }
+      if (visitor.settingsChanged) {
+        classificationsByProject.remove(project);
+      }
+    }
+  }
+
+  private static class ProjectDeltaVisitor implements IResourceDeltaVisitor {
+    private final ProjectClassifications classifications;
+    private boolean settingsChanged;
+
+    ProjectDeltaVisitor(ProjectClassifications classifications) {
+      this.classifications = classifications;
+    }
+
+    @Override
+    public boolean visit(IResourceDelta delta) {
+      IResource resource = delta.getResource();
+      if (resource.getType() == IResource.PROJECT) {
+        return true;
+      }
+      if (isProjectSettings(resource)) {
+        settingsChanged = true;
+        return false;
+      }
+      if (resource.getType() == IResource.FILE
+        && (delta.getKind() != IResourceDelta.CHANGED || (delta.getFlags() & (IResourceDelta.MOVED_FROM | IResourceDelta.MOVED_TO
+          | IResourceDelta.REPLACED | IResourceDelta.TYPE)) != 0)) {
+        classifications.remove(resource);
+      }
+      return !settingsChanged;
+    }
+
+    private static boolean isProjectSettings(IResource resource) {
+      IPath path = resource.getProjectRelativePath();
+      if (path.segmentCount() == 0) {
+        return false;
+      }
+      String firstSegment = path.segment(0);
+      return PROJECT_SETTINGS_FOLDER.equals(firstSegment)
+        || (path.segmentCount() == 1 && resource.getType() == IResource.FILE && firstSegment.startsWith("."));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.nio.charset.Charset;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Content of a file read once for an analysis, and shared by the engine, the computation of issue checksums and the positioning
+ * of markers. The document, that computes line offsets, and the encoded bytes are only created when first needed.
+ * <p>
+ * The document must not be modified.
+ */
+class FileContentSnapshot {
+  private final String content;
+  private final Charset charset;
+  private IDocument document;
+  private byte[] bytes;
+
+  FileContentSnapshot(String content, Charset charset) {
+    this.content = content;
+    this.charset = charset;
+  }
+
+  String getContent() {
+    return content;
+  }
+
+  synchronized byte[] getBytes() {
+    if (bytes == null) {
+      bytes = content.getBytes(charset);
+    }
+    return bytes;
+  }
+
+  synchronized IDocument getDocument() {
+    if (document == null) {
+      document = new Document(content);
+    }
+    return document;
+  }
+}
@@ -0,0 +1,240 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.jobs;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+
+import static java.text.MessageFormat.format;
+
+/**
+ * Analyzes the files of several projects, running the analyses of up to {@link SonarLintGlobalConfiguration#getAnalysisParallelism()}
+ * projects concurrently.
+ * <p>
+ * Progress is reported per analyzed file. Analyses running concurrently can't share the given monitor, so each one gets its own
+ * monitor, that forwards progress to the shared monitor under a lock, scaled to the number of files of the project.
+ */
+public class ParallelProjectsAnalyzer {
+
+  private static final long CANCEL_POLLING_MS = 100;
+
+  private final int parallelism;
+  private final BiFunction<AnalyzeProjectRequest, IProgressMonitor, IStatus> analyzer;
+
+  public ParallelProjectsAnalyzer() {
+    this(SonarLintGlobalConfiguration.getAnalysisParallelism(), (request, monitor) -> AbstractAnalyzeProjectJob.create(request).run(monitor));
+  }
+
+  public ParallelProjectsAnalyzer(int parallelism, BiFunction<AnalyzeProjectRequest, IProgressMonitor, IStatus> analyzer) {
+    this.parallelism = parallelism;
+    this.analyzer = analyzer;
+  }
+
+  /**
+   * Closed projects are skipped. If the analysis of a project fails, the others are cancelled and the failure is thrown.
+   */
+  public IStatus analyze(Map<ISonarLintProject, ? extends Collection<FileWithDocument>> filesPerProject, TriggerType triggerType, IProgressMonitor monitor) {
+    List<AnalyzeProjectRequest> requests = filesPerProject.entrySet().stream()
+      .filter(e -> e.getKey().isOpen())
+      .map(e -> new AnalyzeProjectRequest(e.getKey(), e.getValue(), triggerType))
+      .collect(Collectors.toList());
+    int fileCount = requests.stream().mapToInt(r -> r.getFiles().size()).sum();
+    SubMonitor progress = SubMonitor.convert(monitor, fileCount);
+    int threadCount = Math.min(parallelism, requests.size());
+    if (threadCount <= 1) {
+      return analyzeSequentially(requests, progress);
+    }
+    return analyzeConcurrently(requests, threadCount, progress);
+  }
+
+  private IStatus analyzeSequentially(List<AnalyzeProjectRequest> requests, SubMonitor progress) {
+    for (AnalyzeProjectRequest request : requests) {
+      if (progress.isCanceled()) {
+        return Status.CANCEL_STATUS;
+      }
+      progress.setTaskName("Analyzing project " + request.getProject().getName());
+      SubMonitor subMonitor = progress.newChild(request.getFiles().size());
+      analyzer.apply(request, subMonitor);
+      subMonitor.done();
+    }
+    return progress.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+  }
+
+  private IStatus analyzeConcurrently(List<AnalyzeProjectRequest> requests, int threadCount, SubMonitor progress) {
+    AtomicBoolean canceled = new AtomicBoolean();
+    // SubMonitor is not thread safe
+    Object progressLock = new Object();
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount, r -> {
+      Thread thread = new Thread(r, "SonarLint project analysis");
+      thread.setDaemon(true);
+      return thread;
+    });
+    CompletionService<AnalyzeProjectRequest> completionService = new ExecutorCompletionService<>(executor);
+    try {
+      for (AnalyzeProjectRequest request : requests) {
+        completionService.submit(() -> {
+          ForwardingMonitor analysisMonitor = new ForwardingMonitor(progress, progressLock, canceled, request.getFiles().size());
+          try {
+            if (!canceled.get()) {
+              analyzer.apply(request, analysisMonitor);
+            }
+          } finally {
+            analysisMonitor.done();
+          }
+          return request;
+        });
+      }
+      synchronized (progressLock) {
+        progress.setTaskName(format("Analyzing {0} projects", requests.size()));
+      }
+      int remaining = requests.size();
+      while (remaining > 0) {
+        if (progress.isCanceled()) {
+          canceled.set(true);
+        }
+        Future<AnalyzeProjectRequest> done = completionService.poll(CANCEL_POLLING_MS, TimeUnit.MILLISECONDS);
+        if (done != null) {
+          remaining--;
+          AnalyzeProjectRequest request = done.get();
+          synchronized (progressLock) {
+            progress.subTask("Analyzed project " + request.getProject().getName());
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      canceled.set(true);
+    } catch (ExecutionException e) {
+      canceled.set(true);
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdown();
+      awaitTermination(executor);
+    }
+    return canceled.get() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+  }
+
+  /**
+   * Don't report completion while analyses of cancelled or failed runs are still updating markers
+   */
+  private static void awaitTermination(ExecutorService executor) {
+    try {
+      // Analyses stop at their next cancellation check
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Monitor of an analysis running concurrently with others. The work reported by the analysis is scaled to the ticks allocated
+   * to its project in the shared monitor. Cancellation is forwarded through a flag, since the shared monitor is only polled by
+   * the thread that owns it.
+   */
+  private static class ForwardingMonitor extends NullProgressMonitor {
+    private final SubMonitor progress;
+    private final Object progressLock;
+    private final AtomicBoolean canceled;
+    private final int ticks;
+    // Only accessed by the analysis thread
+    private double totalWork;
+    private double doneTicks;
+    private int forwardedTicks;
+
+    ForwardingMonitor(SubMonitor progress, Object progressLock, AtomicBoolean canceled, int ticks) {
+      this.progress = progress;
+      this.progressLock = progressLock;
+      this.canceled = canceled;
+      this.ticks = ticks;
+    }
+
+    @Override
+    public void beginTask(String name, int totalWork) {
+      this.totalWork = totalWork;
+    }
+
+    @Override
+    public void worked(int work) {
+      internalWorked(work);
+    }
+
+    @Override
+    public void internalWorked(double work) {
+      if (totalWork > 0) {
+        forward(doneTicks + work * ticks / totalWork);
+      }
+    }
+
+    @Override
+    public void subTask(String name) {
+      synchronized (progressLock) {
+        progress.subTask(name);
+      }
+    }
+
+    @Override
+    public void done() {
+      forward(ticks);
+    }
+
+    private void forward(double newDoneTicks) {
+      doneTicks = Math.min(newDoneTicks, ticks);
+      int work = (int) doneTicks - forwardedTicks;
+      if (work > 0) {
+        forwardedTicks += work;
+        synchronized (progressLock) {
+          progress.worked(work);
+        }
+      }
+    }
+
+    @Override
+    public boolean isCanceled() {
+      return canceled.get();
+    }
+
+    @Override
+    public void setCanceled(boolean value) {
+      if (value) {
+        canceled.set(true);
+      }
+    }
+  }
+}
@@ -28,10 +28,16 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.DefaultPositionUpdater;
@@ -40,10 +46,12 @@ import org.eclipse.jface.text.Position;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
+import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
 import org.sonarlint.eclipse.core.internal.markers.FlowCodec;
 import org.sonarlint.eclipse.core.internal.markers.MarkerUtils;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.ProjectsProviderUtils;
+import org.sonarlint.eclipse.core.internal.tracking.IssueTracker;
 import org.sonarlint.eclipse.core.internal.tracking.Trackable;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintIssuable;
@@ -57,6 +65,19 @@ public class SonarLintMarkerUpdater {
   }
 
   public static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Collection<Trackable> issues, TriggerType triggerType) {
+    createOrUpdateMarkers(file, openedDocument, file::getDocument, issues, triggerType);
+  }
+
+  /**
+   * @param fileDocument provides the content of the file when it is not opened, only called if needed
+   */
+  public static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Supplier<IDocument> fileDocument, Collection<Trackable> issues,
+    TriggerType triggerType) {
+    createOrUpdateMarkers(file, openedDocument, fileDocument, issues, triggerType, false);
+  }
+
+  private static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Supplier<IDocument> fileDocument, Collection<Trackable> issues,
+    TriggerType triggerType, boolean pendingReanalysis) {
     try {
       Set<IMarker> previousMarkersToDelete;
       if (triggerType.isOnTheFly()) {
@@ -69,7 +90,7 @@ public class SonarLintMarkerUpdater {
         resetExtraPositions(openedDocument.get());
       }
 
-      createOrUpdateMarkers(file, openedDocument, issues, triggerType, previousMarkersToDelete);
+      createOrUpdateMarkers(file, openedDocument, fileDocument, issues, triggerType, pendingReanalysis, previousMarkersToDelete);
 
       for (IMarker marker : previousMarkersToDelete) {
         marker.delete();
@@ -79,6 +100,62 @@ public class SonarLintMarkerUpdater {
     }
   }
 
+  /**
+   * Create markers for the issues persisted for the given files, flagged as pending re-analysis.
+   * The next analysis of a file will update them like any other marker, and clear the flag.
+   * Nothing is done for files that were already analyzed.
+   */
+  public static void restorePendingMarkers(Collection<FileWithDocument> files, IProgressMonitor monitor) throws CoreException {
+    restorePendingMarkers(files, SonarLintCorePlugin::getOrCreateIssueTracker, monitor);
+  }
+
+  public static void restorePendingMarkers(Collection<FileWithDocument> files, Function<ISonarLintProject, IssueTracker> issueTrackers, IProgressMonitor monitor)
+    throws CoreException {
+    // Restore all files in a single workspace operation, to notify marker changes only once
+    ResourcesPlugin.getWorkspace().run(m -> {
+      for (FileWithDocument fileWithDoc : files) {
+        if (m.isCanceled()) {
+          return;
+        }
+        ISonarLintFile file = fileWithDoc.getFile();
+        Collection<Trackable> restoredIssues = issueTrackers.apply(file.getProject()).restore(file);
+        if (restoredIssues.isEmpty()) {
+          continue;
+        }
+        ISchedulingRule markerRule = ResourcesPlugin.getWorkspace().getRuleFactory().markerRule(file.getResource());
+        try {
+          Job.getJobManager().beginRule(markerRule, m);
+          createOrUpdateMarkers(file, Optional.ofNullable(fileWithDoc.getDocument()), file::getDocument, restoredIssues, TriggerType.STARTUP, true);
+        } finally {
+          Job.getJobManager().endRule(markerRule);
+        }
+      }
+    }, monitor);
+  }
+
+  /**
+   * Delete the markers of issues restored from the previous session that no analysis updated yet, so that they don't stay
+   * displayed when the analysis meant to update them fails or is cancelled.
+   */
+  public static void clearPendingMarkers(Collection<ISonarLintFile> files) {
+    try {
+      ResourcesPlugin.getWorkspace().run(m -> {
+        for (ISonarLintFile file : files) {
+          if (!file.getResource().isAccessible()) {
+            continue;
+          }
+          for (IMarker marker : file.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_ZERO)) {
+            if (marker.getAttribute(MarkerUtils.SONAR_MARKER_PENDING_REANALYSIS_ATTR, false)) {
+              marker.delete();
+            }
+          }
+        }
+      }, null);
+    } catch (CoreException e) {
+      SonarLintLogger.get().error(e.getMessage(), e);
+    }
+  }
+
   public static Set<IResource> getResourcesWithMarkers(ISonarLintProject project) throws CoreException {
     return Arrays.stream(project.getResource().findMarkers(SonarLintCorePlugin.MARKER_ON_THE_FLY_ID, false, IResource.DEPTH_INFINITE))
       .map(IMarker::getResource)
@@ -133,22 +210,22 @@ public class SonarLintMarkerUpdater {
         updateServerMarkerAttributes(issue, marker);
       } else {
         // Issue was previously resolved, and is now reopen, so we need to recreate a marker
-        createMarker(document, issuable, issue, triggerType, createExtraLocations);
+        createMarker(document, issuable, issue, triggerType, createExtraLocations, false);
       }
     }
   }
 
-  private static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Collection<Trackable> issues,
-    TriggerType triggerType, Set<IMarker> previousMarkersToDelete) throws CoreException {
+  private static void createOrUpdateMarkers(ISonarLintFile file, Optional<IDocument> openedDocument, Supplier<IDocument> fileDocument, Collection<Trackable> issues,
+    TriggerType triggerType, boolean pendingReanalysis, Set<IMarker> previousMarkersToDelete) throws CoreException {
     IDocument lazyInitDocument = openedDocument.orElse(null);
     for (Trackable issue : issues) {
       if (!issue.isResolved()) {
-        lazyInitDocument = lazyInitDocument != null ? lazyInitDocument : file.getDocument();
+        lazyInitDocument = lazyInitDocument != null ? lazyInitDocument : fileDocument.get();
         if (!triggerType.isOnTheFly() || issue.getMarkerId() == null || file.getResource().findMarker(issue.getMarkerId()) == null) {
-          createMarker(lazyInitDocument, file, issue, triggerType, openedDocument.isPresent());
+          createMarker(lazyInitDocument, file, issue, triggerType, openedDocument.isPresent(), pendingReanalysis);
         } else {
           IMarker marker = file.getResource().findMarker(issue.getMarkerId());
-          updateMarkerAttributes(lazyInitDocument, issue, marker, openedDocument.isPresent());
+          updateMarkerAttributes(lazyInitDocument, issue, marker, openedDocument.isPresent(), pendingReanalysis);
           previousMarkersToDelete.remove(marker);
         }
       } else {
@@ -157,8 +234,8 @@ public class SonarLintMarkerUpdater {
     }
   }
 
-  private static void createMarker(IDocument document, ISonarLintIssuable issuable, Trackable trackable, TriggerType triggerType, boolean createExtraLocations)
-    throws CoreException {
+  private static void createMarker(IDocument document, ISonarLintIssuable issuable, Trackable trackable, TriggerType triggerType, boolean createExtraLocations,
+    boolean pendingReanalysis) throws CoreException {
     IMarker marker = issuable.getResource()
       .createMarker(triggerType.isOnTheFly() ? SonarLintCorePlugin.MARKER_ON_THE_FLY_ID : SonarLintCorePlugin.MARKER_REPORT_ID);
     if (triggerType.isOnTheFly()) {
@@ -169,10 +246,11 @@ public class SonarLintMarkerUpdater {
     marker.setAttribute("org.eclipse.ui.views.markers.name", issuable.getResourceNameForMarker());
     marker.setAttribute("org.eclipse.ui.views.markers.path", issuable.getResourceContainerForMarker());
 
-    updateMarkerAttributes(document, trackable, marker, createExtraLocations);
+    updateMarkerAttributes(document, trackable, marker, createExtraLocations, pendingReanalysis);
   }
 
-  private static void updateMarkerAttributes(IDocument document, Trackable trackable, IMarker marker, boolean createExtraLocations) throws CoreException {
+  private static void updateMarkerAttributes(IDocument document, Trackable trackable, IMarker marker, boolean createExtraLocations, boolean pendingReanalysis)
+    throws CoreException {
     Map<String, Object> existingAttributes = marker.getAttributes();
 
     setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_RULE_KEY_ATTR, trackable.getRuleKey());
@@ -197,6 +275,7 @@ public class SonarLintMarkerUpdater {
       hasExtraLocation = !encodedFlows.isEmpty();
     }
     setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_HAS_EXTRA_LOCATION_KEY_ATTR, hasExtraLocation);
+    setMarkerAttributeIfDifferent(marker, existingAttributes, MarkerUtils.SONAR_MARKER_PENDING_REANALYSIS_ATTR, pendingReanalysis ? Boolean.TRUE : null);
 
     updateServerMarkerAttributes(trackable, marker);
   }
@@ -19,26 +19,22 @@
  */
 package org.sonarlint.eclipse.core.internal.jobs;
 
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
-import java.nio.file.Path;
-import java.nio.file.PathMatcher;
-import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.analysis.IFileTypeProvider;
 import org.sonarlint.eclipse.core.analysis.IFileTypeProvider.ISonarLintFileType;
+import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.extension.SonarLintExtensionTracker;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
+import org.sonarlint.eclipse.core.internal.utils.GlobMatcher;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 
 public class TestFileClassifier {
   private static TestFileClassifier instance;
-  private List<PathMatcher> pathMatchersForTests;
+  private GlobMatcher testsMatcher;
 
   public TestFileClassifier() {
-    reload();
+    loadPatterns();
   }
 
   public static TestFileClassifier get() {
@@ -49,22 +45,18 @@ public class TestFileClassifier {
   }
 
   /**
-   * Reload patterns from global preferences.
+   * Reload patterns from global preferences, and forget remembered classifications.
    * Should be called when preferences are changed.
    */
   public void reload() {
-    String allTestPattern = SonarLintGlobalConfiguration.getTestFileRegexps();
-    String[] testPatterns = allTestPattern.split(",");
-    pathMatchersForTests = createMatchersForTests(testPatterns);
+    loadPatterns();
+    SonarLintCorePlugin.getFileClassificationCache().clear();
   }
 
-  private static List<PathMatcher> createMatchersForTests(String[] testPatterns) {
-    final List<PathMatcher> pathMatchers = new ArrayList<>();
-    FileSystem fs = FileSystems.getDefault();
-    for (String testPattern : testPatterns) {
-      pathMatchers.add(fs.getPathMatcher("glob:" + testPattern));
-    }
-    return pathMatchers;
+  private void loadPatterns() {
+    String allTestPattern = SonarLintGlobalConfiguration.getTestFileRegexps();
+    String[] testPatterns = allTestPattern.split(",");
+    testsMatcher = new GlobMatcher(Arrays.asList(testPatterns));
   }
 
   public boolean isTest(ISonarLintFile file) {
@@ -74,12 +66,9 @@ public class TestFileClassifier {
         return true;
       }
     }
-    Path fileRelativePath = Paths.get(file.getProjectRelativePath());
-    for (PathMatcher matcher : pathMatchersForTests) {
-      if (matcher.matches(fileRelativePath)) {
-        SonarLintLogger.get().debug("File '" + file.getProjectRelativePath() + "' qualified as test by file pattern");
-        return true;
-      }
+    if (testsMatcher.matches(file.getProjectRelativePath())) {
+      SonarLintLogger.get().debug("File '" + file.getProjectRelativePath() + "' qualified as test by file pattern");
+      return true;
     }
     return false;
   }
@@ -50,6 +50,10 @@ public final class MarkerUtils {
   public static final String SONAR_MARKER_SERVER_ISSUE_KEY_ATTR = "serverissuekey";
   public static final String SONAR_MARKER_HAS_EXTRA_LOCATION_KEY_ATTR = "hasextralocation";
   public static final String SONAR_MARKER_EXTRA_LOCATIONS_ATTR = "extralocation";
+  /**
+   * Set on markers restored from the issue store at startup, until the file is analyzed again
+   */
+  public static final String SONAR_MARKER_PENDING_REANALYSIS_ATTR = "pendingreanalysis";
 
   public static final String SONARLINT_EXTRA_POSITIONS_CATEGORY = "sonarlintextralocations";
 
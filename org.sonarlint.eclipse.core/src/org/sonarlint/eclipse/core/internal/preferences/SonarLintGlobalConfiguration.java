@@ -77,6 +77,10 @@ public class SonarLintGlobalConfiguration {
   public static final String PREF_TEST_FILE_REGEXPS = "testFileRegexps"; //$NON-NLS-1$
   public static final String PREF_TEST_FILE_REGEXPS_DEFAULT = ""; //$NON-NLS-1$
   public static final String PREF_SKIP_CONFIRM_ANALYZE_MULTIPLE_FILES = "skipConfirmAnalyzeMultipleFiles"; //$NON-NLS-1$
+  public static final String PREF_ISSUE_CACHE_MAX_SIZE_MB = "issueCacheMaxSizeMb"; //$NON-NLS-1$
+  public static final int PREF_ISSUE_CACHE_MAX_SIZE_MB_DEFAULT = 64;
+  public static final String PREF_ANALYSIS_PARALLELISM = "analysisParallelism"; //$NON-NLS-1$
+  public static final int PREF_ANALYSIS_PARALLELISM_DEFAULT = 0;
 
   private SonarLintGlobalConfiguration() {
     // Utility class
@@ -86,6 +90,21 @@ public class SonarLintGlobalConfiguration {
     return Platform.getPreferencesService().getString(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_TEST_FILE_REGEXPS, PREF_TEST_FILE_REGEXPS_DEFAULT, null);
   }
 
+  /**
+   * Maximum estimated size of the issues of recently analyzed files kept in memory, per project
+   */
+  public static int getIssueCacheMaxSizeMb() {
+    return Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_ISSUE_CACHE_MAX_SIZE_MB, PREF_ISSUE_CACHE_MAX_SIZE_MB_DEFAULT, null);
+  }
+
+  /**
+   * Maximum number of projects analyzed concurrently by manual analyses. Half the available processors if not configured.
+   */
+  public static int getAnalysisParallelism() {
+    int parallelism = Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_ANALYSIS_PARALLELISM, PREF_ANALYSIS_PARALLELISM_DEFAULT, null);
+    return parallelism > 0 ? parallelism : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  }
+
   public static int getMarkerSeverity() {
     return Platform.getPreferencesService().getInt(SonarLintCorePlugin.UI_PLUGIN_ID, PREF_MARKER_SEVERITY, PREF_MARKER_SEVERITY_DEFAULT, null);
   }
@@ -20,6 +20,7 @@
 package org.sonarlint.eclipse.core.internal.preferences;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -35,6 +36,26 @@ public class SonarLintProjectConfiguration {
   @Nullable
   private EclipseProjectBinding projectBinding;
   private boolean autoEnabled = true;
+  private boolean readOnly;
+
+  /**
+   * Immutable copy, that can be shared between callers
+   */
+  SonarLintProjectConfiguration readOnlySnapshot() {
+    SonarLintProjectConfiguration snapshot = new SonarLintProjectConfiguration();
+    snapshot.extraProperties = Collections.unmodifiableList(new ArrayList<>(extraProperties));
+    snapshot.fileExclusions = Collections.unmodifiableList(new ArrayList<>(fileExclusions));
+    snapshot.projectBinding = projectBinding;
+    snapshot.autoEnabled = autoEnabled;
+    snapshot.readOnly = true;
+    return snapshot;
+  }
+
+  private void checkNotReadOnly() {
+    if (readOnly) {
+      throw new IllegalStateException("Configuration snapshots are read-only, load the configuration for update to change it");
+    }
+  }
 
   public List<ExclusionItem> getFileExclusions() {
     return fileExclusions;
@@ -53,10 +74,12 @@ public class SonarLintProjectConfiguration {
   }
 
   public void setAutoEnabled(boolean autoEnabled) {
+    checkNotReadOnly();
     this.autoEnabled = autoEnabled;
   }
 
   public void setProjectBinding(@Nullable EclipseProjectBinding projectBinding) {
+    checkNotReadOnly();
     this.projectBinding = projectBinding;
   }
 
@@ -20,7 +20,12 @@
 package org.sonarlint.eclipse.core.internal.preferences;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.IPreferenceChangeListener;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences.PreferenceChangeEvent;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.osgi.service.prefs.BackingStoreException;
 import org.sonarlint.eclipse.core.SonarLintLogger;
@@ -47,6 +52,90 @@ public class SonarLintProjectConfigurationManager {
   private static final String P_MODULE_KEY = "moduleKey";
   private static final String P_AUTO_ENABLED_KEY = "autoEnabled";
 
+  // Snapshots are cached until the preferences of the project are changed
+  private final Map<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+  private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Be notified when the configuration of a project is changed, if a snapshot of the configuration of this project was loaded since the
+   * last change.
+   */
+  public void addConfigurationChangeListener(Runnable listener) {
+    changeListeners.add(listener);
+  }
+
+  public void removeConfigurationChangeListener(Runnable listener) {
+    changeListeners.remove(listener);
+  }
+
+  /**
+   * Read-only configuration of the project, shared between callers until preferences of the project are changed.
+   * Use {@link #load(IScopeContext, String)} to get a configuration that can be changed and saved.
+   */
+  public SonarLintProjectConfiguration loadSnapshot(IScopeContext projectScope, String projectName) {
+    IEclipsePreferences projectNode = projectScope.getNode(SonarLintCorePlugin.PLUGIN_ID);
+    if (projectNode == null) {
+      return load(projectScope, projectName).readOnlySnapshot();
+    }
+    CachedSnapshot cached = snapshots.get(projectName);
+    // A project with the same name may have been deleted and created again, in which case its preferences are a different node
+    if (cached != null && cached.projectNode == projectNode) {
+      return cached.snapshot;
+    }
+    // Listen before loading the configuration, so that no change is missed
+    CachedSnapshot newCached = new CachedSnapshot(projectName, projectNode);
+    projectNode.addPreferenceChangeListener(newCached);
+    SonarLintProjectConfiguration snapshot = load(projectScope, projectName).readOnlySnapshot();
+    newCached.publish(snapshot);
+    return snapshot;
+  }
+
+  /**
+   * Configuration of a project, removed from the cache when any preference of the project is changed.
+   */
+  private class CachedSnapshot implements IPreferenceChangeListener {
+    private final String projectName;
+    private final IEclipsePreferences projectNode;
+    private SonarLintProjectConfiguration snapshot;
+    private boolean invalidated;
+
+    CachedSnapshot(String projectName, IEclipsePreferences projectNode) {
+      this.projectName = projectName;
+      this.projectNode = projectNode;
+    }
+
+    /**
+     * Put in the cache, unless preferences were changed while they were loaded
+     */
+    void publish(SonarLintProjectConfiguration loadedSnapshot) {
+      CachedSnapshot previous;
+      synchronized (this) {
+        if (invalidated) {
+          return;
+        }
+        this.snapshot = loadedSnapshot;
+        previous = snapshots.put(projectName, this);
+      }
+      if (previous != null && previous != this) {
+        previous.stopListening();
+      }
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event) {
+      synchronized (this) {
+        invalidated = true;
+        snapshots.remove(projectName, this);
+      }
+      stopListening();
+      changeListeners.forEach(Runnable::run);
+    }
+
+    void stopListening() {
+      projectNode.removePreferenceChangeListener(this);
+    }
+  }
+
   public SonarLintProjectConfiguration load(IScopeContext projectScope, String projectName) {
     IEclipsePreferences projectNode = projectScope.getNode(SonarLintCorePlugin.PLUGIN_ID);
     SonarLintProjectConfiguration projectConfig = new SonarLintProjectConfiguration();
@@ -0,0 +1,244 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.markers.FlowCodec;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint;
+import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.ClientInputFile;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+
+/**
+ * Persistent cache of the raw issues of the last analysis of each file of a project, so that files whose content and analysis
+ * configuration did not change since then don't have to be sent to the engine again.
+ * <p>
+ * There is a single entry per file, stored with the fingerprint of the analysis that produced it. The fingerprint is a digest of
+ * everything the raw issues depend on (content, language, rules, analysis properties, analyzers), so a lookup with a different
+ * fingerprint is a miss, and the entry is replaced by the next analysis.
+ */
+public class AnalysisResultCache {
+
+  private static final Reader<Sonarlint.AnalysisResult> READER = is -> {
+    try {
+      return Sonarlint.AnalysisResult.parseFrom(is);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read analysis result", e);
+    }
+  };
+  private static final Writer<Sonarlint.AnalysisResult> WRITER = (os, result) -> {
+    try {
+      result.writeTo(os);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to save analysis result", e);
+    }
+  };
+
+  /**
+   * Give some time to the first analyses before sweeping the cache
+   */
+  private static final long CLEANUP_DELAY_MS = 30_000;
+
+  private final PackedObjectStore<Sonarlint.AnalysisResult> store;
+  private final IssueStoreCleanupJob cleanupJob;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  public AnalysisResultCache(Path storeBasePath, ISonarLintProject project) {
+    StoreKeyValidator<String> validator = new PathStoreKeyValidator(project);
+    store = new PackedObjectStore<>(storeBasePath, READER, WRITER, validator);
+    // Remove entries of files that no longer exist
+    cleanupJob = new IssueStoreCleanupJob(store, validator);
+    cleanupJob.schedule(CLEANUP_DELAY_MS);
+  }
+
+  /**
+   * @return raw issues of the last analysis of the file, if it was done with the same fingerprint
+   */
+  public Optional<List<Issue>> get(ClientInputFile inputFile, String fingerprint) {
+    try {
+      Optional<Sonarlint.AnalysisResult> result = store.read(inputFile.relativePath());
+      if (result.isPresent() && result.get().getFingerprint().equals(fingerprint)) {
+        hitCount.incrementAndGet();
+        return Optional.of(result.get().getIssueList().stream()
+          .map(issue -> new CachedIssue(issue, inputFile))
+          .collect(Collectors.toList()));
+      }
+    } catch (Exception e) {
+      SonarLintLogger.get().debug("Unable to read cached analysis result of " + inputFile.relativePath(), e);
+    }
+    missCount.incrementAndGet();
+    return Optional.empty();
+  }
+
+  public void put(ClientInputFile inputFile, String fingerprint, Collection<Issue> issues) {
+    Sonarlint.AnalysisResult.Builder builder = Sonarlint.AnalysisResult.newBuilder().setFingerprint(fingerprint);
+    issues.stream().map(AnalysisResultCache::transform).forEach(builder::addIssue);
+    try {
+      store.write(inputFile.relativePath(), builder.build());
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to cache analysis result of " + inputFile.relativePath(), e);
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return the percentage of lookups that found a reusable result, or 0 when nothing was looked up yet
+   */
+  public int getHitRate() {
+    long hits = hitCount.get();
+    long lookups = hits + missCount.get();
+    return lookups == 0 ? 0 : (int) (hits * 100 / lookups);
+  }
+
+  public void clear() {
+    store.clear();
+  }
+
+  public void close() {
+    cleanupJob.stop();
+    store.close();
+  }
+
+  private static Sonarlint.AnalysisResult.RawIssue transform(Issue issue) {
+    Sonarlint.AnalysisResult.RawIssue.Builder builder = Sonarlint.AnalysisResult.RawIssue.newBuilder()
+      .setRuleKey(issue.getRuleKey())
+      .setSeverity(issue.getSeverity());
+    if (issue.getRuleName() != null) {
+      builder.setRuleName(issue.getRuleName());
+    }
+    if (issue.getType() != null) {
+      builder.setType(issue.getType());
+    }
+    if (issue.getMessage() != null) {
+      builder.setMessage(issue.getMessage());
+    }
+    if (issue.getStartLine() != null) {
+      Sonarlint.Issues.TextRange.Builder textRange = Sonarlint.Issues.TextRange.newBuilder().setStartLine(issue.getStartLine());
+      if (issue.getStartLineOffset() != null && issue.getEndLine() != null && issue.getEndLineOffset() != null) {
+        textRange
+          .setStartLineOffset(issue.getStartLineOffset())
+          .setEndLine(issue.getEndLine())
+          .setEndLineOffset(issue.getEndLineOffset());
+      }
+      builder.setTextRange(textRange);
+    }
+    if (!issue.flows().isEmpty()) {
+      builder.setFlows(FlowCodec.encode(issue.flows()));
+    }
+    return builder.build();
+  }
+
+  private static class CachedIssue implements Issue {
+
+    private final Sonarlint.AnalysisResult.RawIssue issue;
+    private final ClientInputFile inputFile;
+    private final List<Flow> flows;
+
+    private CachedIssue(Sonarlint.AnalysisResult.RawIssue issue, ClientInputFile inputFile) {
+      this.issue = issue;
+      this.inputFile = inputFile;
+      this.flows = issue.getFlows().isEmpty() ? Collections.emptyList() : FlowCodec.decode(issue.getFlows());
+    }
+
+    @Override
+    public String getSeverity() {
+      return issue.getSeverity();
+    }
+
+    @Nullable
+    @Override
+    public String getType() {
+      return issue.getType().isEmpty() ? null : issue.getType();
+    }
+
+    @Override
+    public String getRuleKey() {
+      return issue.getRuleKey();
+    }
+
+    @Override
+    public String getRuleName() {
+      return issue.getRuleName();
+    }
+
+    @Override
+    public List<Flow> flows() {
+      return flows;
+    }
+
+    @Nullable
+    @Override
+    public Integer getStartLine() {
+      return issue.hasTextRange() ? issue.getTextRange().getStartLine() : null;
+    }
+
+    @Nullable
+    @Override
+    public Integer getStartLineOffset() {
+      return hasOffsets() ? issue.getTextRange().getStartLineOffset() : null;
+    }
+
+    @Nullable
+    @Override
+    public Integer getEndLine() {
+      return hasOffsets() ? issue.getTextRange().getEndLine() : null;
+    }
+
+    @Nullable
+    @Override
+    public Integer getEndLineOffset() {
+      return hasOffsets() ? issue.getTextRange().getEndLineOffset() : null;
+    }
+
+    private boolean hasOffsets() {
+      return issue.hasTextRange() && issue.getTextRange().getEndLine() != 0;
+    }
+
+    @Override
+    public String getMessage() {
+      return issue.getMessage();
+    }
+
+    @Override
+    public ClientInputFile getInputFile() {
+      return inputFile;
+    }
+  }
+}
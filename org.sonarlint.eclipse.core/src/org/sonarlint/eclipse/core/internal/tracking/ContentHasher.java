@@ -0,0 +1,185 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Computes checksums of line and text range contents, as used to track issues. The checksum is the MD5 of the UTF-8 encoded content,
+ * whitespaces excluded, formatted as an hexadecimal string. This is also how the server computes issue checksums, and how checksums
+ * of the local issue store were computed, so the algorithm must not change.
+ * <p>
+ * Characters are streamed directly into a digest, without intermediate strings. Digests are per-thread, so this class is thread safe.
+ */
+public class ContentHasher {
+
+  private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+  private static final ThreadLocal<Hasher> HASHERS = ThreadLocal.withInitial(Hasher::new);
+
+  private ContentHasher() {
+    // utility class, forbidden constructor
+  }
+
+  /**
+   * @return the hexadecimal MD5 of the content, whitespaces excluded
+   */
+  public static String digest(CharSequence content) {
+    return new String(toHex(hash(content)));
+  }
+
+  /**
+   * Same as {@code digest(content).hashCode()}
+   */
+  public static int checksum(CharSequence content) {
+    return hexHashCode(hash(content));
+  }
+
+  /**
+   * Same as {@code digest(document.get(offset, length)).hashCode()}
+   */
+  public static int checksum(IDocument document, int offset, int length) throws BadLocationException {
+    if (offset < 0 || length < 0 || offset + length > document.getLength()) {
+      throw new BadLocationException();
+    }
+    Hasher hasher = HASHERS.get();
+    hasher.reset();
+    for (int i = offset; i < offset + length; i++) {
+      hasher.update(document.getChar(i));
+    }
+    return hexHashCode(hasher.digest());
+  }
+
+  private static byte[] hash(CharSequence content) {
+    Hasher hasher = HASHERS.get();
+    hasher.reset();
+    for (int i = 0; i < content.length(); i++) {
+      hasher.update(content.charAt(i));
+    }
+    return hasher.digest();
+  }
+
+  private static char[] toHex(byte[] data) {
+    char[] out = new char[data.length << 1];
+    for (int i = 0, j = 0; i < data.length; ++i, j += 2) {
+      out[j] = DIGITS[(240 & data[i]) >>> 4];
+      out[j + 1] = DIGITS[15 & data[i]];
+    }
+    return out;
+  }
+
+  /**
+   * Compute {@link String#hashCode()} of the hexadecimal representation, without creating the string
+   */
+  private static int hexHashCode(byte[] data) {
+    int h = 0;
+    for (byte b : data) {
+      h = 31 * h + DIGITS[(240 & b) >>> 4];
+      h = 31 * h + DIGITS[15 & b];
+    }
+    return h;
+  }
+
+  /**
+   * Same as regexp \s
+   */
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+  /**
+   * Encodes non whitespace characters in UTF-8, the same way as {@link String#getBytes(java.nio.charset.Charset)}, and feeds them to an MD5 digest.
+   */
+  private static class Hasher {
+    private static final byte REPLACEMENT = (byte) '?';
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[1024];
+    private int count;
+    private char pendingHighSurrogate;
+
+    Hasher() {
+      try {
+        digest = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
+    void reset() {
+      digest.reset();
+      count = 0;
+      pendingHighSurrogate = 0;
+    }
+
+    void update(char c) {
+      if (isWhitespace(c)) {
+        return;
+      }
+      if (pendingHighSurrogate != 0) {
+        char high = pendingHighSurrogate;
+        pendingHighSurrogate = 0;
+        if (Character.isLowSurrogate(c)) {
+          int codePoint = Character.toCodePoint(high, c);
+          put((byte) (0xF0 | (codePoint >> 18)));
+          put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+          put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+          put((byte) (0x80 | (codePoint & 0x3F)));
+          return;
+        }
+        put(REPLACEMENT);
+      }
+      if (c < 0x80) {
+        put((byte) c);
+      } else if (c < 0x800) {
+        put((byte) (0xC0 | (c >> 6)));
+        put((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c)) {
+        pendingHighSurrogate = c;
+      } else if (Character.isLowSurrogate(c)) {
+        put(REPLACEMENT);
+      } else {
+        put((byte) (0xE0 | (c >> 12)));
+        put((byte) (0x80 | ((c >> 6) & 0x3F)));
+        put((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+
+    private void put(byte b) {
+      if (count == buffer.length) {
+        digest.update(buffer, 0, count);
+        count = 0;
+      }
+      buffer[count++] = b;
+    }
+
+    byte[] digest() {
+      if (pendingHighSurrogate != 0) {
+        pendingHighSurrogate = 0;
+        put(REPLACEMENT);
+      }
+      digest.update(buffer, 0, count);
+      count = 0;
+      return digest.digest();
+    }
+  }
+}
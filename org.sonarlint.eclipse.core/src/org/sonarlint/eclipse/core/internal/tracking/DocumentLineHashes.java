@@ -0,0 +1,140 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
+
+/**
+ * Per document table of line checksums, as computed by {@link ContentHasher}. Checksums are computed lazily, and kept until the line
+ * is modified, so that analyzing again an unchanged or lightly edited file doesn't require to hash its lines again.
+ * <p>
+ * A document listener keeps each table in sync with its document: lines touched by an edit are invalidated, and the checksums of the
+ * following lines are shifted. The modification stamp of the document is checked as well, in case some change was not notified.
+ */
+public class DocumentLineHashes {
+
+  private static final Map<IDocument, LineHashTable> TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+
+  private DocumentLineHashes() {
+    // utility class, forbidden constructor
+  }
+
+  /**
+   * @param line 1-based line number
+   * @return checksum of the line content, line delimiter excluded
+   */
+  public static int get(IDocument document, int line) throws BadLocationException {
+    LineHashTable table = TABLES.computeIfAbsent(document, DocumentLineHashes::createTable);
+    return table.get(document, line - 1);
+  }
+
+  private static LineHashTable createTable(IDocument document) {
+    LineHashTable table = new LineHashTable();
+    document.addDocumentListener(table);
+    return table;
+  }
+
+  private static long modificationStamp(IDocument document) {
+    return document instanceof IDocumentExtension4 ? ((IDocumentExtension4) document).getModificationStamp() : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+  }
+
+  /**
+   * Must not keep a reference to the document, otherwise it would never be removed from the weak map.
+   */
+  private static class LineHashTable implements IDocumentListener {
+    private int[] hashes = new int[0];
+    private boolean[] computed = new boolean[0];
+    private long stamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    private int changeFirstLine;
+    private int changeLastLine;
+
+    synchronized int get(IDocument document, int lineIndex) throws BadLocationException {
+      int lineCount = document.getNumberOfLines();
+      long currentStamp = modificationStamp(document);
+      if (hashes.length != lineCount || currentStamp != stamp) {
+        reset(lineCount, currentStamp);
+      }
+      if (lineIndex < 0 || lineIndex >= lineCount) {
+        throw new BadLocationException("Invalid line " + (lineIndex + 1));
+      }
+      if (!computed[lineIndex]) {
+        int offset = document.getLineOffset(lineIndex);
+        int length = document.getLineLength(lineIndex);
+        String delimiter = document.getLineDelimiter(lineIndex);
+        hashes[lineIndex] = ContentHasher.checksum(document, offset, length - (delimiter != null ? delimiter.length() : 0));
+        computed[lineIndex] = true;
+      }
+      return hashes[lineIndex];
+    }
+
+    private void reset(int lineCount, long newStamp) {
+      hashes = new int[lineCount];
+      computed = new boolean[lineCount];
+      stamp = newStamp;
+    }
+
+    @Override
+    public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+      IDocument document = event.getDocument();
+      try {
+        changeFirstLine = document.getLineOfOffset(event.getOffset());
+        changeLastLine = document.getLineOfOffset(event.getOffset() + event.getLength());
+      } catch (BadLocationException e) {
+        changeFirstLine = -1;
+      }
+    }
+
+    @Override
+    public synchronized void documentChanged(DocumentEvent event) {
+      IDocument document = event.getDocument();
+      int newLineCount = document.getNumberOfLines();
+      if (changeFirstLine < 0 || hashes.length != newLineCount - lineDelta(event, document)) {
+        reset(newLineCount, modificationStamp(document));
+        return;
+      }
+      int delta = lineDelta(event, document);
+      int newLastLine = changeLastLine + delta;
+      int[] newHashes = new int[newLineCount];
+      boolean[] newComputed = new boolean[newLineCount];
+      System.arraycopy(hashes, 0, newHashes, 0, changeFirstLine);
+      System.arraycopy(computed, 0, newComputed, 0, changeFirstLine);
+      int tailLength = hashes.length - changeLastLine - 1;
+      System.arraycopy(hashes, changeLastLine + 1, newHashes, newLastLine + 1, tailLength);
+      System.arraycopy(computed, changeLastLine + 1, newComputed, newLastLine + 1, tailLength);
+      hashes = newHashes;
+      computed = newComputed;
+      stamp = modificationStamp(document);
+    }
+
+    private int lineDelta(DocumentEvent event, IDocument document) {
+      String text = event.getText();
+      int insertedLines = text != null ? document.computeNumberOfLines(text) : 0;
+      return insertedLines - (changeLastLine - changeFirstLine);
+    }
+  }
+
+}
@@ -27,7 +27,6 @@ import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Optional;
 import org.sonarlint.eclipse.core.SonarLintLogger;
-import org.sonarsource.sonarlint.core.client.api.connected.objectstore.ObjectStore;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.PathMapper;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
@@ -38,7 +37,7 @@ import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
  * @param <K> type of the key to store by and used when reading back; must be hashable
  * @param <V> type of the value to store
  */
-class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
+class IndexedObjectStore<K, V> implements LocalObjectStore<K, V> {
 
   private final StoreIndex<K> index;
   private final PathMapper<K> pathMapper;
@@ -65,6 +64,16 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     }
   }
 
+  @Override
+  public Optional<byte[]> readBytes(K key) throws IOException {
+    Path path = pathMapper.apply(key);
+    if (!path.toFile().exists()) {
+      return Optional.empty();
+    }
+    return Optional.of(Files.readAllBytes(path));
+  }
+
+  @Override
   public boolean contains(K key) {
     Path path = pathMapper.apply(key);
     return path.toFile().exists();
@@ -73,6 +82,7 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
   /**
    * Deletes all entries in the index that are no longer valid.
    */
+  @Override
   public void deleteInvalid() {
     int counter = 0;
     Collection<K> keys = index.keys();
@@ -97,6 +107,28 @@ class IndexedObjectStore<K, V> implements ObjectStore<K, V> {
     index.delete(key);
   }
 
+  @Override
+  public void clear() {
+    for (K k : index.keys()) {
+      try {
+        Files.deleteIfExists(pathMapper.apply(k));
+      } catch (IOException e) {
+        SonarLintLogger.get().error("Failed to delete file in the store", e);
+      }
+    }
+    index.clear();
+  }
+
+  @Override
+  public void close() {
+    // nothing to release
+  }
+
+  @Override
+  public Collection<K> keys() {
+    return index.keys();
+  }
+
   @Override
   public void write(K key, V value) throws IOException {
     Path path = pathMapper.apply(key);
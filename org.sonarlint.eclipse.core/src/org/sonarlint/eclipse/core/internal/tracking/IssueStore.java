@@ -20,14 +20,20 @@
 package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarlint.eclipse.core.internal.markers.FlowCodec;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
 import org.sonarlint.eclipse.core.internal.proto.Sonarlint;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.HashingPathMapper;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.PathMapper;
 import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
@@ -35,31 +41,111 @@ import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
 import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
 
 public class IssueStore {
-  private Path basePath;
-  private IndexedObjectStore<String, Sonarlint.Issues> store;
+
+  /**
+   * How issues are laid out on disk.
+   */
+  public enum Layout {
+    /**
+     * One file per source file, located by hashing the key, and an index of all keys
+     */
+    FILE_PER_KEY,
+    /**
+     * All issues packed in a single data file
+     */
+    PACKED
+  }
+
+  /**
+   * Version of the format of saved issues. Issues saved with a previous version remain readable, and are upgraded the next time
+   * they are saved:
+   * <ul>
+   * <li>unset: only the fields used for matching, and the values carried forward</li>
+   * <li>2: text ranges, text range hashes, rule names, flows and raw severities and types too, so that markers can be created from
+   * stored issues</li>
+   * </ul>
+   */
+  public static final int FORMAT_VERSION = 2;
+
+  private static final Reader<Sonarlint.Issues> READER = is -> {
+    try {
+      return Sonarlint.Issues.parseFrom(is);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read issues", e);
+    }
+  };
+  private static final Writer<Sonarlint.Issues> WRITER = (os, issues) -> {
+    try {
+      issues.writeTo(os);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to save issues", e);
+    }
+  };
+
+  /**
+   * Give some time to the first analyses before sweeping the store
+   */
+  private static final long CLEANUP_DELAY_MS = 30_000;
+
+  private LocalObjectStore<String, Sonarlint.Issues> store;
+  private final IssueStoreCleanupJob cleanupJob;
 
   public IssueStore(Path storeBasePath, ISonarLintProject project) {
-    this.basePath = storeBasePath;
+    this(storeBasePath, project, Layout.PACKED);
+  }
+
+  public IssueStore(Path storeBasePath, ISonarLintProject project, Layout layout) {
     FileUtils.mkdirs(storeBasePath);
-    StoreIndex<String> index = new StringStoreIndex(storeBasePath);
-    PathMapper<String> mapper = new HashingPathMapper(storeBasePath, 2);
     StoreKeyValidator<String> validator = new PathStoreKeyValidator(project);
-    Reader<Sonarlint.Issues> reader = is -> {
-      try {
-        return Sonarlint.Issues.parseFrom(is);
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to read issues", e);
+    if (layout == Layout.PACKED) {
+      boolean migrationNeeded = !PackedObjectStore.exists(storeBasePath) && hasFilePerKeyLayout(storeBasePath);
+      PackedObjectStore<Sonarlint.Issues> packedStore = new PackedObjectStore<>(storeBasePath, READER, WRITER, validator);
+      if (migrationNeeded) {
+        migrate(storeBasePath, validator, packedStore);
       }
-    };
-    Writer<Sonarlint.Issues> writer = (os, issues) -> {
+      store = packedStore;
+    } else {
+      store = newFilePerKeyStore(storeBasePath, validator);
+    }
+    cleanupJob = new IssueStoreCleanupJob(store, validator);
+  }
+
+  private static IndexedObjectStore<String, Sonarlint.Issues> newFilePerKeyStore(Path storeBasePath, StoreKeyValidator<String> validator) {
+    StoreIndex<String> index = new StringStoreIndex(storeBasePath);
+    PathMapper<String> mapper = new HashingPathMapper(storeBasePath, 2);
+    return new IndexedObjectStore<>(index, mapper, READER, WRITER, validator);
+  }
+
+  private static boolean hasFilePerKeyLayout(Path storeBasePath) {
+    return storeBasePath.resolve(StringStoreIndex.INDEX_FILENAME).toFile().exists()
+      || storeBasePath.resolve(StringStoreIndex.JOURNAL_FILENAME).toFile().exists();
+  }
+
+  /**
+   * Copy valid entries of a store using the {@link Layout#FILE_PER_KEY} layout, then delete it.
+   */
+  private static void migrate(Path storeBasePath, StoreKeyValidator<String> validator, PackedObjectStore<Sonarlint.Issues> packedStore) {
+    IndexedObjectStore<String, Sonarlint.Issues> legacyStore = newFilePerKeyStore(storeBasePath, validator);
+    int counter = 0;
+    for (String key : legacyStore.keys()) {
       try {
-        issues.writeTo(os);
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to save issues", e);
+        Optional<Sonarlint.Issues> issues = legacyStore.read(key);
+        if (issues.isPresent() && validator.apply(key)) {
+          packedStore.write(key, issues.get());
+          counter++;
+        }
+      } catch (Exception e) {
+        SonarLintLogger.get().debug("Unable to migrate stored issues of " + key, e);
       }
-    };
-    store = new IndexedObjectStore<>(index, mapper, reader, writer, validator);
-    store.deleteInvalid();
+    }
+    SonarLintLogger.get().debug(String.format("%d entries migrated to the packed issue store", counter));
+    try (Stream<Path> children = Files.list(storeBasePath)) {
+      children
+        .filter(p -> !p.getFileName().toString().equals(PackedObjectStore.DATA_FILENAME))
+        .forEach(FileUtils::deleteRecursively);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to delete previous issue store", e);
+    }
   }
 
   public boolean contains(String key) {
@@ -72,31 +158,38 @@ public class IssueStore {
 
   @Nullable
   public Collection<Trackable> read(String key) throws IOException {
-    Optional<Sonarlint.Issues> issues = store.read(key);
+    Optional<byte[]> issues = store.readBytes(key);
     if (issues.isPresent()) {
-      return transform(issues.get());
+      return StoredIssues.parse(issues.get());
     }
     return null;
   }
 
+  /**
+   * Remove entries of files that no longer exist.
+   */
   public void clean() {
     store.deleteInvalid();
   }
 
+  /**
+   * Remove entries of files that no longer exist, incrementally and in background.
+   */
+  public void scheduleCleanup() {
+    cleanupJob.schedule(CLEANUP_DELAY_MS);
+  }
+
   public void clear() {
-    FileUtils.deleteRecursively(basePath);
-    FileUtils.mkdirs(basePath);
+    store.clear();
   }
 
-  private static Collection<Trackable> transform(Sonarlint.Issues protoIssues) {
-    return protoIssues.getIssueList().stream()
-      .map(IssueStore::transform)
-      .filter(Objects::nonNull)
-      .collect(Collectors.toList());
+  public void close() {
+    cleanupJob.stop();
+    store.close();
   }
 
   private static Sonarlint.Issues transform(Collection<Trackable> localIssues) {
-    Sonarlint.Issues.Builder builder = Sonarlint.Issues.newBuilder();
+    Sonarlint.Issues.Builder builder = Sonarlint.Issues.newBuilder().setVersion(FORMAT_VERSION);
     localIssues.stream()
       .map(IssueStore::transform)
       .filter(Objects::nonNull)
@@ -105,10 +198,6 @@ public class IssueStore {
     return builder.build();
   }
 
-  private static Trackable transform(Sonarlint.Issues.Issue issue) {
-    return new ProtobufIssueTrackable(issue);
-  }
-
   private static Sonarlint.Issues.Issue transform(Trackable localIssue) {
     Sonarlint.Issues.Issue.Builder builder = Sonarlint.Issues.Issue.newBuilder()
       .setRuleKey(localIssue.getRuleKey())
@@ -135,6 +224,40 @@ public class IssueStore {
     if (localIssue.getMarkerId() != null) {
       builder.setMarkerId(localIssue.getMarkerId());
     }
+    TextRange textRange = localIssue.getTextRange();
+    if (textRange != null && textRange.isValid()) {
+      builder.setTextRange(transform(textRange));
+      if (localIssue.getTextRangeHash() != null) {
+        builder.setTextRangeHash(localIssue.getTextRangeHash());
+      }
+    }
+    if (localIssue.getRuleName() != null) {
+      builder.setRuleName(localIssue.getRuleName());
+    }
+    List<Flow> flows = localIssue.getFlows();
+    if (flows != null && !flows.isEmpty()) {
+      builder.setFlows(FlowCodec.encode(flows));
+    }
+    String rawSeverity = localIssue.getRawSeverity();
+    if (rawSeverity != null && !rawSeverity.equals(localIssue.getSeverity())) {
+      builder.setRawSeverity(rawSeverity);
+    }
+    String rawType = localIssue.getRawType();
+    if (rawType != null && !rawType.equals(localIssue.getType())) {
+      builder.setRawType(rawType);
+    }
+    return builder.build();
+  }
+
+  private static Sonarlint.Issues.TextRange transform(TextRange textRange) {
+    Sonarlint.Issues.TextRange.Builder builder = Sonarlint.Issues.TextRange.newBuilder()
+      .setStartLine(textRange.getStartLine());
+    if (!textRange.isLineOnly()) {
+      builder
+        .setStartLineOffset(textRange.getStartLineOffset())
+        .setEndLine(textRange.getEndLine())
+        .setEndLineOffset(textRange.getEndLineOffset());
+    }
     return builder.build();
   }
 }
@@ -0,0 +1,127 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Removes from the issue store the entries of files that no longer exist.
+ * <p>
+ * Validating a key can be costly, so the sweep is done in batches, the job rescheduling itself until all keys are validated.
+ * Keys are snapshotted when a sweep starts, and a cursor tracks the progress, so that a canceled sweep resumes where it stopped
+ * the next time the job is scheduled. Entries written after the snapshot were just analyzed, so they don't need validation.
+ */
+public class IssueStoreCleanupJob extends Job {
+
+  public static final int BATCH_SIZE = 200;
+  private static final long BATCH_DELAY_MS = 500;
+
+  private final LocalObjectStore<String, ?> store;
+  private final StoreKeyValidator<String> validator;
+  private volatile boolean stopped;
+
+  // Only accessed by the job thread, as a job never runs concurrently with itself
+  private List<String> sweptKeys;
+  private int cursor;
+  private int removed;
+
+  public IssueStoreCleanupJob(LocalObjectStore<String, ?> store, StoreKeyValidator<String> validator) {
+    super("Clean SonarLint issue store");
+    this.store = store;
+    this.validator = validator;
+    setSystem(true);
+    setPriority(DECORATE);
+  }
+
+  @Override
+  protected IStatus run(IProgressMonitor monitor) {
+    return cleanBatch(monitor);
+  }
+
+  /**
+   * Validate the next batch of keys, and reschedule the job if the sweep is not complete.
+   */
+  public IStatus cleanBatch(IProgressMonitor monitor) {
+    if (sweptKeys == null) {
+      sweptKeys = new ArrayList<>(store.keys());
+      cursor = 0;
+      removed = 0;
+    }
+    int batchEnd = Math.min(cursor + BATCH_SIZE, sweptKeys.size());
+    while (cursor < batchEnd) {
+      if (monitor.isCanceled() || stopped) {
+        return Status.CANCEL_STATUS;
+      }
+      String key = sweptKeys.get(cursor);
+      if (!validator.apply(key)) {
+        try {
+          store.delete(key);
+          removed++;
+        } catch (IOException e) {
+          SonarLintLogger.get().error("Failed to delete entry in the store", e);
+        }
+      }
+      cursor++;
+    }
+    if (cursor < sweptKeys.size()) {
+      if (!monitor.isCanceled() && !stopped) {
+        schedule(BATCH_DELAY_MS);
+      }
+    } else {
+      SonarLintLogger.get().debug(String.format("%d entries removed from the store", removed));
+      sweptKeys = null;
+    }
+    return Status.OK_STATUS;
+  }
+
+  /**
+   * Cancel the sweep and wait for a running batch to complete, so that the store can be safely closed.
+   * The job is never rescheduled afterwards.
+   */
+  public void stop() {
+    stopped = true;
+    cancel();
+    try {
+      join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean shouldSchedule() {
+    return !stopped;
+  }
+
+  /**
+   * @return true if a sweep was started and is not complete yet
+   */
+  public boolean isSweepInProgress() {
+    return sweptKeys != null;
+  }
+
+}
@@ -0,0 +1,193 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Persists issues into an {@link IssueStore} from a dedicated thread, so that callers never wait for disk writes.
+ * Pending writes of the same file are coalesced, only the latest issues are persisted.
+ * The number of pending files is bounded: when the limit is reached, callers wait for the writer thread to catch up.
+ * The writer thread is started on demand, and stops after some time without activity.
+ */
+class IssueStoreFlusher {
+
+  static final int DEFAULT_CAPACITY = 500;
+  private static final long IDLE_TIMEOUT_MS = 10_000;
+
+  private final IssueStore store;
+  private final int capacity;
+  private final Map<String, Collection<Trackable>> pending = new LinkedHashMap<>();
+
+  @Nullable
+  private String inFlightKey;
+  @Nullable
+  private Collection<Trackable> inFlightTrackables;
+  @Nullable
+  private Thread writerThread;
+  private boolean stopped;
+
+  IssueStoreFlusher(IssueStore store) {
+    this(store, DEFAULT_CAPACITY);
+  }
+
+  IssueStoreFlusher(IssueStore store, int capacity) {
+    this.store = store;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Schedule the write of issues of a file, waiting if too many writes are already pending.
+   */
+  synchronized void enqueue(String file, Collection<Trackable> trackables) {
+    while (pending.size() >= capacity && !pending.containsKey(file) && !stopped) {
+      try {
+        wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    enqueueUnbounded(file, trackables);
+  }
+
+  private void enqueueUnbounded(String file, Collection<Trackable> trackables) {
+    if (stopped) {
+      SonarLintLogger.get().debug("Issue store is closed, issues of " + file + " will not be persisted");
+      return;
+    }
+    pending.put(file, trackables);
+    if (writerThread == null) {
+      writerThread = new Thread(this::writeLoop, "SonarLint issue store writer");
+      writerThread.setDaemon(true);
+      writerThread.start();
+    }
+    notifyAll();
+  }
+
+  /**
+   * Schedule the write of issues of several files, ignoring the capacity.
+   */
+  synchronized void enqueueAll(Map<String, Collection<Trackable>> trackablesPerFile) {
+    trackablesPerFile.forEach(this::enqueueUnbounded);
+  }
+
+  /**
+   * @return issues of the file that are not yet persisted, null if none
+   */
+  @Nullable
+  synchronized Collection<Trackable> getPending(String file) {
+    Collection<Trackable> trackables = pending.get(file);
+    if (trackables == null && file.equals(inFlightKey)) {
+      return inFlightTrackables;
+    }
+    return trackables;
+  }
+
+  /**
+   * Drop all pending writes, and wait for the ongoing one to complete.
+   */
+  synchronized void discardAll() {
+    pending.clear();
+    awaitIdle(0);
+  }
+
+  /**
+   * Wait until all pending writes are done.
+   *
+   * @param timeoutMs maximum time to wait, 0 to wait forever
+   * @return true if all writes are done
+   */
+  synchronized boolean awaitIdle(long timeoutMs) {
+    long deadline = System.currentTimeMillis() + timeoutMs;
+    while (!pending.isEmpty() || inFlightKey != null) {
+      long remaining = timeoutMs == 0 ? 0 : (deadline - System.currentTimeMillis());
+      if (timeoutMs != 0 && remaining <= 0) {
+        return false;
+      }
+      try {
+        wait(remaining);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Flush pending writes within the given time budget, then stop accepting new ones.
+   *
+   * @return true if all pending writes were flushed in time
+   */
+  synchronized boolean stop(long timeoutMs) {
+    boolean flushed = awaitIdle(timeoutMs);
+    stopped = true;
+    if (!flushed) {
+      SonarLintLogger.get().info(String.format("Issue store writer did not complete in time, issues of %d file(s) will not be persisted", pending.size()));
+      pending.clear();
+    }
+    notifyAll();
+    return flushed;
+  }
+
+  private void writeLoop() {
+    while (true) {
+      String file;
+      Collection<Trackable> trackables;
+      synchronized (this) {
+        inFlightKey = null;
+        inFlightTrackables = null;
+        notifyAll();
+        if (pending.isEmpty() && !stopped) {
+          try {
+            wait(IDLE_TIMEOUT_MS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        if (pending.isEmpty() || Thread.currentThread().isInterrupted()) {
+          writerThread = null;
+          return;
+        }
+        Iterator<Map.Entry<String, Collection<Trackable>>> it = pending.entrySet().iterator();
+        Map.Entry<String, Collection<Trackable>> next = it.next();
+        it.remove();
+        file = next.getKey();
+        trackables = next.getValue();
+        inFlightKey = file;
+        inFlightTrackables = trackables;
+        // Wake up callers waiting for capacity
+        notifyAll();
+      }
+      try {
+        SonarLintLogger.get().debug("Persisting issues for " + file);
+        store.save(file, trackables);
+      } catch (Exception e) {
+        SonarLintLogger.get().error(String.format("Error persisting issues for %s", file), e);
+      }
+    }
+  }
+}
@@ -23,21 +23,42 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.stream.Collectors;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 
+/**
+ * Tracks issues of the files of a project. Operations on a given file are serialized, but different files can be tracked concurrently:
+ * locks are striped by file path.
+ */
 public class IssueTracker {
 
+  private static final int LOCK_STRIPES = 64;
+
   private final IssueTrackerCache cache;
+  private final Object[] locks = new Object[LOCK_STRIPES];
 
   public IssueTracker(IssueTrackerCache cache) {
     this.cache = cache;
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  private Object lockFor(ISonarLintFile file) {
+    return locks[(file.getProjectRelativePath().hashCode() & Integer.MAX_VALUE) % LOCK_STRIPES];
   }
 
   /**
    * Match a new set of trackables to current state.
    * If this is the first analysis, leave creation date as null.
    */
-  public synchronized Collection<Trackable> matchAndTrackAsNew(ISonarLintFile file, Collection<Trackable> rawIssues) {
+  public Collection<Trackable> matchAndTrackAsNew(ISonarLintFile file, Collection<Trackable> rawIssues) {
+    synchronized (lockFor(file)) {
+      return doMatchAndTrackAsNew(file, rawIssues);
+    }
+  }
+
+  private Collection<Trackable> doMatchAndTrackAsNew(ISonarLintFile file, Collection<Trackable> rawIssues) {
     Collection<Trackable> tracked;
     if (cache.isFirstAnalysis(file.getProjectRelativePath())) {
       tracked = rawIssues;
@@ -58,19 +79,47 @@ public class IssueTracker {
     return tracked;
   }
 
-  public synchronized void updateCache(ISonarLintFile file, Collection<Trackable> tracked) {
-    cache.put(file.getProjectRelativePath(), tracked);
+  public void updateCache(ISonarLintFile file, Collection<Trackable> tracked) {
+    synchronized (lockFor(file)) {
+      cache.put(file.getProjectRelativePath(), tracked);
+    }
+  }
+
+  /**
+   * Put back in memory the issues persisted for a file, so that they can be displayed until the file is analyzed again.
+   * Nothing is restored if issues of the file are already in memory.
+   * @return the restored issues, empty if none
+   */
+  public Collection<Trackable> restore(ISonarLintFile file) {
+    String path = file.getProjectRelativePath();
+    synchronized (lockFor(file)) {
+      if (cache.isLive(path)) {
+        return Collections.emptyList();
+      }
+      Collection<Trackable> stored = cache.getCurrentTrackables(path);
+      if (stored == null || stored.isEmpty()) {
+        return Collections.emptyList();
+      }
+      Collection<Trackable> restored = stored.stream()
+        .map(RestoredTrackable::new)
+        .collect(Collectors.toList());
+      cache.put(path, restored);
+      return restored;
+    }
   }
 
   /**
    * "Rebase" current issues against given server issues.
    *
    */
-  public synchronized Collection<Trackable> matchAndTrackServerIssues(ISonarLintFile file, Collection<Trackable> serverIssues) {
-    // store issues (ProtobufIssueTrackable) are of no use since they can't be used in markers. There should have been
-    // an analysis before that set the live issues for the file (even if it is empty)
-    Collection<Trackable> current = cache.getLiveOrFail(file.getProjectRelativePath());
-    if (current.isEmpty()) {
+  public Collection<Trackable> matchAndTrackServerIssues(ISonarLintFile file, Collection<Trackable> serverIssues) {
+    Collection<Trackable> current;
+    synchronized (lockFor(file)) {
+      // stored issues (ProtobufIssueTrackable) keep their text range and flows, so they can be used in markers without analyzing
+      // the file again
+      current = cache.getCurrentTrackables(file.getProjectRelativePath());
+    }
+    if (current == null || current.isEmpty()) {
       // whatever is the base, if current is empty, then nothing to do
       return Collections.emptyList();
     }
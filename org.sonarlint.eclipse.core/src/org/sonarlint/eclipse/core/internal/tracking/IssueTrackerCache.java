@@ -29,6 +29,11 @@ public interface IssueTrackerCache {
   
   Collection<Trackable> getLiveOrFail(String file);
 
+  /**
+   * Whether issues of the file are in memory, as opposed to only persisted.
+   */
+  boolean isLive(String file);
+
   void put(String file, Collection<Trackable> trackables);
 
   /**
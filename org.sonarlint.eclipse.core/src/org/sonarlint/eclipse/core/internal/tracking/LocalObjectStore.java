@@ -0,0 +1,61 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Optional;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.ObjectStore;
+
+/**
+ * An ObjectStore backing the local issue store.
+ *
+ * @param <K> type of the key to store by and used when reading back; must be hashable
+ * @param <V> type of the value to store
+ */
+public interface LocalObjectStore<K, V> extends ObjectStore<K, V> {
+
+  boolean contains(K key);
+
+  /**
+   * Keys of all entries.
+   */
+  Collection<K> keys();
+
+  /**
+   * Reads the serialized value, without decoding it.
+   */
+  Optional<byte[]> readBytes(K key) throws IOException;
+
+  /**
+   * Deletes all entries in the store that are no longer valid.
+   */
+  void deleteInvalid();
+
+  /**
+   * Deletes all entries.
+   */
+  void clear();
+
+  /**
+   * Release any resource held by the store. The store should not be used anymore after this call.
+   */
+  void close();
+}
@@ -0,0 +1,370 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Reader;
+import org.sonarsource.sonarlint.core.client.api.connected.objectstore.Writer;
+import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An ObjectStore that packs all entries in a single append-only data file.
+ * Each record is made of a header (key length, value length), the key and the value. A value length of -1 marks a deleted key.
+ * The offset of the latest record of each key is kept in memory, and rebuilt by scanning record headers when the store is opened.
+ * Superseded records are reclaimed by a background compaction once they take more space than live ones.
+ *
+ * @param <V> type of the value to store
+ */
+public class PackedObjectStore<V> implements LocalObjectStore<String, V> {
+
+  public static final String DATA_FILENAME = "issues.pack";
+  static final long MIN_GARBAGE_BEFORE_COMPACTION = 1024L * 1024L;
+  private static final int HEADER_SIZE = 8;
+  private static final int TOMBSTONE = -1;
+
+  private final Path dataFilePath;
+  private final Reader<V> reader;
+  private final Writer<V> writer;
+  private final StoreKeyValidator<String> validator;
+  private final Job compactionJob;
+
+  private Map<String, Record> records = new HashMap<>();
+  private FileChannel channel;
+  private long endOffset;
+  private long garbageBytes;
+
+  public PackedObjectStore(Path storeBasePath, Reader<V> reader, Writer<V> writer, StoreKeyValidator<String> validator) {
+    this.dataFilePath = storeBasePath.resolve(DATA_FILENAME);
+    this.reader = reader;
+    this.writer = writer;
+    this.validator = validator;
+    this.compactionJob = new CompactionJob();
+    FileUtils.mkdirs(storeBasePath);
+    try {
+      loadRecords();
+      this.channel = openChannel();
+      if (channel.size() > endOffset) {
+        SonarLintLogger.get().debug("Ignoring truncated record at the end of the local issue store");
+        channel.truncate(endOffset);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to open local issue store", e);
+    }
+  }
+
+  static boolean exists(Path storeBasePath) {
+    return storeBasePath.resolve(DATA_FILENAME).toFile().exists();
+  }
+
+  private FileChannel openChannel() throws IOException {
+    return FileChannel.open(dataFilePath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  private void loadRecords() throws IOException {
+    if (!dataFilePath.toFile().exists()) {
+      return;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(dataFilePath)))) {
+      while (true) {
+        int keyLength;
+        try {
+          keyLength = in.readInt();
+        } catch (EOFException e) {
+          return;
+        }
+        int valueLength = in.readInt();
+        if (keyLength < 0 || valueLength < TOMBSTONE) {
+          // Corrupted header, most likely a partially written record
+          return;
+        }
+        byte[] keyBytes = new byte[keyLength];
+        in.readFully(keyBytes);
+        skipFully(in, Math.max(0, valueLength));
+        Record record = new Record(endOffset, keyLength, valueLength);
+        String key = new String(keyBytes, UTF_8);
+        if (valueLength == TOMBSTONE) {
+          supersede(records.remove(key));
+          garbageBytes += record.length();
+        } else {
+          supersede(records.put(key, record));
+        }
+        endOffset += record.length();
+      }
+    } catch (EOFException e) {
+      // Partially written record, endOffset still points to its start
+    }
+  }
+
+  private static void skipFully(DataInputStream in, int length) throws IOException {
+    if (in.skipBytes(length) < length) {
+      throw new EOFException();
+    }
+  }
+
+  private void supersede(@Nullable Record previous) {
+    if (previous != null) {
+      garbageBytes += previous.length();
+    }
+  }
+
+  @Override
+  public Optional<V> read(String key) throws IOException {
+    Optional<byte[]> bytes = readBytes(key);
+    if (!bytes.isPresent()) {
+      return Optional.empty();
+    }
+    try (InputStream inputStream = new ByteArrayInputStream(bytes.get())) {
+      return Optional.of(reader.apply(inputStream));
+    }
+  }
+
+  @Override
+  public synchronized Optional<byte[]> readBytes(String key) throws IOException {
+    Record record = records.get(key);
+    if (record == null) {
+      return Optional.empty();
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(record.valueLength);
+    readFully(buffer, record.valueOffset());
+    return Optional.of(buffer.array());
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    long current = position;
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, current);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of local issue store");
+      }
+      current += read;
+    }
+  }
+
+  @Override
+  public synchronized boolean contains(String key) {
+    return records.containsKey(key);
+  }
+
+  @Override
+  public synchronized void write(String key, V value) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.accept(out, value);
+    Record record = append(key, out.toByteArray());
+    supersede(records.put(key, record));
+    scheduleCompactionIfNeeded();
+  }
+
+  @Override
+  public synchronized void delete(String key) throws IOException {
+    Record previous = records.remove(key);
+    if (previous == null) {
+      return;
+    }
+    supersede(previous);
+    garbageBytes += append(key, null).length();
+    scheduleCompactionIfNeeded();
+  }
+
+  private Record append(String key, @Nullable byte[] value) throws IOException {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    int valueLength = value != null ? value.length : TOMBSTONE;
+    Record record = new Record(endOffset, keyBytes.length, valueLength);
+    ByteBuffer buffer = ByteBuffer.allocate((int) record.length());
+    buffer.putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+    if (value != null) {
+      buffer.put(value);
+    }
+    buffer.flip();
+    long position = endOffset;
+    while (buffer.hasRemaining()) {
+      position += channel.write(buffer, position);
+    }
+    endOffset = position;
+    return record;
+  }
+
+  @Override
+  public void deleteInvalid() {
+    int counter = 0;
+    for (String key : keys()) {
+      if (!validator.apply(key)) {
+        try {
+          counter++;
+          delete(key);
+        } catch (IOException e) {
+          SonarLintLogger.get().error("Failed to delete entry in the store", e);
+        }
+      }
+    }
+    SonarLintLogger.get().debug(String.format("%d entries removed from the store", counter));
+  }
+
+  @Override
+  public synchronized Collection<String> keys() {
+    return new ArrayList<>(records.keySet());
+  }
+
+  @Override
+  public synchronized void clear() {
+    try {
+      channel.truncate(0);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to clear local issue store", e);
+    }
+    records = new HashMap<>();
+    endOffset = 0;
+    garbageBytes = 0;
+  }
+
+  @Override
+  public synchronized void close() {
+    compactionJob.cancel();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to close local issue store", e);
+    }
+  }
+
+  private void scheduleCompactionIfNeeded() {
+    if (garbageBytes > MIN_GARBAGE_BEFORE_COMPACTION && garbageBytes > endOffset - garbageBytes) {
+      compactionJob.schedule();
+    }
+  }
+
+  /**
+   * Copy live records to a new data file, and replace the current one.
+   */
+  public synchronized void compact() throws IOException {
+    if (!channel.isOpen()) {
+      return;
+    }
+    Path tmpFilePath = dataFilePath.resolveSibling(DATA_FILENAME + ".tmp");
+    Map<String, Record> compacted = new HashMap<>(records.size());
+    long position = 0;
+    boolean replaced = false;
+    try {
+      try (FileChannel target = FileChannel.open(tmpFilePath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        for (Map.Entry<String, Record> entry : records.entrySet()) {
+          Record record = entry.getValue();
+          long copied = 0;
+          while (copied < record.length()) {
+            copied += channel.transferTo(record.offset + copied, record.length() - copied, target);
+          }
+          compacted.put(entry.getKey(), new Record(position, record.keyLength, record.valueLength));
+          position += record.length();
+        }
+        target.force(true);
+      }
+      channel.close();
+      try {
+        replaceDataFile(tmpFilePath, dataFilePath);
+        replaced = true;
+      } finally {
+        // The move is atomic, so the channel is reopened on either the compacted file or the untouched previous one
+        channel = openChannel();
+      }
+    } finally {
+      if (!replaced) {
+        deleteQuietly(tmpFilePath);
+      }
+    }
+    SonarLintLogger.get().debug(String.format("Local issue store compacted from %d to %d bytes", endOffset, position));
+    records = compacted;
+    endOffset = position;
+    garbageBytes = 0;
+  }
+
+  // visible for testing
+  protected void replaceDataFile(Path compactedFilePath, Path dataFilePath) throws IOException {
+    Files.move(compactedFilePath, dataFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Unable to delete " + path, e);
+    }
+  }
+
+  private class CompactionJob extends Job {
+    CompactionJob() {
+      super("Compact SonarLint issue store");
+      setSystem(true);
+      setPriority(DECORATE);
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+      try {
+        compact();
+      } catch (IOException e) {
+        SonarLintLogger.get().error("Failed to compact local issue store", e);
+      }
+      return Status.OK_STATUS;
+    }
+  }
+
+  private static class Record {
+    private final long offset;
+    private final int keyLength;
+    private final int valueLength;
+
+    Record(long offset, int keyLength, int valueLength) {
+      this.offset = offset;
+      this.keyLength = keyLength;
+      this.valueLength = valueLength;
+    }
+
+    long valueOffset() {
+      return offset + HEADER_SIZE + keyLength;
+    }
+
+    long length() {
+      return (long) HEADER_SIZE + keyLength + Math.max(0, valueLength);
+    }
+  }
+}
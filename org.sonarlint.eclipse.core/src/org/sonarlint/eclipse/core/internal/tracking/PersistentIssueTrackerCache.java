@@ -22,73 +22,101 @@ package org.sonarlint.eclipse.core.internal.tracking;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.LongSupplier;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 
 public class PersistentIssueTrackerCache implements IssueTrackerCache {
 
-  static final int MAX_ENTRIES = 100;
+  static final long SHUTDOWN_FLUSH_TIMEOUT_MS = 10_000;
 
   private final IssueStore store;
-  private final Map<String, Collection<Trackable>> cache;
+  private final IssueStoreFlusher flusher;
+  private final LongSupplier maxWeight;
+  private final Map<String, CacheEntry> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
 
-  public PersistentIssueTrackerCache(IssueStore store) {
+  /**
+   * @param maxWeight maximum estimated size in bytes of issues kept in memory. On insertion, if the limit is passed, entries accessed
+   * the longest time ago are handed over to the flusher and removed from the cache.
+   */
+  public PersistentIssueTrackerCache(IssueStore store, LongSupplier maxWeight) {
     this.store = store;
-    this.cache = new LimitedSizeLinkedHashMap();
+    this.flusher = new IssueStoreFlusher(store);
+    this.maxWeight = maxWeight;
   }
 
-  /**
-   * Keeps a maximum number of entries in the map. On insertion, if the limit is passed, the entry accessed the longest time ago
-   * is flushed into cache and removed from the map.
-   */
-  private class LimitedSizeLinkedHashMap extends LinkedHashMap<String, Collection<Trackable>> {
-    LimitedSizeLinkedHashMap() {
-      super(MAX_ENTRIES, 0.75f, true);
-    }
+  private static class CacheEntry {
+    private final Collection<Trackable> trackables;
+    private final long weight;
 
-    @Override
-    protected boolean removeEldestEntry(Map.Entry<String, Collection<Trackable>> eldest) {
-      if (size() <= MAX_ENTRIES) {
-        return false;
-      }
+    CacheEntry(Collection<Trackable> trackables, long weight) {
+      this.trackables = trackables;
+      this.weight = weight;
+    }
+  }
 
-      String key = eldest.getKey();
-      try {
-        SonarLintLogger.get().debug("Persisting issues for " + key);
-        store.save(key, eldest.getValue());
-      } catch (IOException e) {
-        throw new IllegalStateException(String.format("Error persisting issues for %s", key), e);
+  private void evictIfNeeded(String justPut) {
+    long max = maxWeight.getAsLong();
+    Iterator<Map.Entry<String, CacheEntry>> it = cache.entrySet().iterator();
+    while (weight > max && it.hasNext()) {
+      Map.Entry<String, CacheEntry> eldest = it.next();
+      if (eldest.getKey().equals(justPut)) {
+        // Always keep the most recent entry, even if it is bigger than the limit
+        return;
       }
-      return true;
+      it.remove();
+      weight -= eldest.getValue().weight;
+      evictionCount++;
+      flusher.enqueue(eldest.getKey(), eldest.getValue().trackables);
     }
   }
 
   @Override
-  public boolean isFirstAnalysis(String file) {
-    return !cache.containsKey(file) && !store.contains(file);
+  public synchronized boolean isFirstAnalysis(String file) {
+    return !cache.containsKey(file) && flusher.getPending(file) == null && !store.contains(file);
   }
 
   @Override
   public synchronized Collection<Trackable> getLiveOrFail(String file) {
-    Collection<Trackable> liveTrackables = cache.get(file);
-    if (liveTrackables != null) {
-      return liveTrackables;
+    CacheEntry entry = cache.get(file);
+    if (entry != null) {
+      return entry.trackables;
     }
 
     throw new IllegalStateException("No issues in cache for file: " + file);
   }
 
+  @Override
+  public synchronized boolean isLive(String file) {
+    return cache.containsKey(file);
+  }
+
   /**
-   * Read issues from a file that is cached. On cache miss, it won't fallback to the persistent store.
+   * Read issues from a file that is cached. On cache miss, it will fallback to the persistent store.
    */
   @Override
-  public synchronized Collection<Trackable> getCurrentTrackables(String file) {
-    Collection<Trackable> liveTrackables = cache.get(file);
-    if (liveTrackables != null) {
-      return liveTrackables;
+  public Collection<Trackable> getCurrentTrackables(String file) {
+    synchronized (this) {
+      CacheEntry entry = cache.get(file);
+      if (entry != null) {
+        hitCount++;
+        return entry.trackables;
+      }
+      missCount++;
+
+      Collection<Trackable> pendingTrackables = flusher.getPending(file);
+      if (pendingTrackables != null) {
+        return Collections.unmodifiableCollection(pendingTrackables);
+      }
     }
 
+    // Don't hold the cache lock while reading the store, to not block tracking of other files
     try {
       Collection<Trackable> storedTrackables = store.read(file);
       if (storedTrackables != null) {
@@ -102,32 +130,72 @@ public class PersistentIssueTrackerCache implements IssueTrackerCache {
 
   @Override
   public synchronized void put(String file, Collection<Trackable> trackables) {
-    cache.put(file, trackables);
+    CacheEntry entry = new CacheEntry(trackables, TrackablesWeigher.weigh(file, trackables));
+    CacheEntry previous = cache.put(file, entry);
+    if (previous != null) {
+      weight -= previous.weight;
+    }
+    weight += entry.weight;
+    evictIfNeeded(file);
   }
 
   @Override
   public synchronized void clear() {
+    flusher.discardAll();
     store.clear();
     cache.clear();
+    weight = 0;
   }
 
   /**
-   * Flushes all cached entries to disk.
+   * Flushes all cached entries to disk, and wait for completion.
    * It does not clear the cache.
    */
   public synchronized void flushAll() {
     SonarLintLogger.get().debug("Persisting all issues");
-    cache.forEach((path, trackables) -> {
-      try {
-        store.save(path, trackables);
-      } catch (IOException e) {
-        throw new IllegalStateException("Failed to flush cache", e);
-      }
-    });
+    flusher.enqueueAll(liveTrackables());
+    flusher.awaitIdle(0);
+  }
+
+  private Map<String, Collection<Trackable>> liveTrackables() {
+    Map<String, Collection<Trackable>> result = new LinkedHashMap<>();
+    cache.forEach((file, entry) -> result.put(file, entry.trackables));
+    return result;
+  }
+
+  /**
+   * Wait for entries evicted from the cache to be written to disk.
+   */
+  public void awaitPendingWrites() {
+    flusher.awaitIdle(0);
+  }
+
+  /**
+   * Estimated size in bytes of the issues kept in memory
+   */
+  public synchronized long getWeight() {
+    return weight;
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
   }
 
   @Override
   public synchronized void shutdown() {
-    flushAll();
+    SonarLintLogger.get().debug(String.format("Issue cache statistics: %d hit(s), %d miss(es), %d eviction(s)", hitCount, missCount, evictionCount));
+    SonarLintLogger.get().debug("Persisting all issues");
+    flusher.enqueueAll(liveTrackables());
+    if (flusher.stop(SHUTDOWN_FLUSH_TIMEOUT_MS)) {
+      store.close();
+    }
   }
 }
@@ -21,111 +21,140 @@ package org.sonarlint.eclipse.core.internal.tracking;
 
 import java.util.List;
 import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.internal.markers.FlowCodec;
 import org.sonarlint.eclipse.core.internal.markers.TextRange;
 import org.sonarlint.eclipse.core.internal.proto.Sonarlint.Issues.Issue;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
 
+/**
+ * An issue read from the {@link IssueStore}. Fields are decoded from the serialized issues on demand.
+ * Issues saved before text ranges, rule names and flows were stored are located on their line, with no rule name and no flows.
+ */
 public class ProtobufIssueTrackable implements Trackable {
 
-  private final Issue issue;
+  private final StoredIssues issues;
+  private final int index;
+  // Compared many times when matching issues
+  private String ruleKey;
+  private String message;
+  private Long markerId;
 
   public ProtobufIssueTrackable(Issue issue) {
-    this.issue = issue;
+    this(StoredIssues.of(issue), 0);
+  }
+
+  ProtobufIssueTrackable(StoredIssues issues, int index) {
+    this.issues = issues;
+    this.index = index;
+    long storedMarkerId = issues.markerId(index);
+    this.markerId = storedMarkerId == 0 ? null : storedMarkerId;
   }
 
   @Nullable
   @Override
   public Integer getLine() {
-    return issue.getLine() != 0 ? issue.getLine() : null;
+    int line = issues.line(index);
+    return line != 0 ? line : null;
   }
 
   @Nullable
   @Override
   public Long getMarkerId() {
-    return issue.getMarkerId() == 0 ? null : issue.getMarkerId();
+    return markerId;
   }
 
   @Override
-  public void setMarkerId(Long id) {
-    throw new UnsupportedOperationException();
+  public void setMarkerId(@Nullable Long id) {
+    this.markerId = id;
   }
 
   @Override
   public String getMessage() {
-    return issue.getMessage();
+    if (message == null) {
+      message = issues.string(index, StoredIssues.MESSAGE);
+    }
+    return message;
   }
 
   @Nullable
   @Override
   public Integer getTextRangeHash() {
-    return null;
+    return issues.textRange(index) != null ? issues.textRangeHash(index) : null;
   }
 
   @Override
   public Integer getLineHash() {
-    return issue.getChecksum();
+    return issues.checksum(index);
   }
 
   @Override
   public String getRuleKey() {
-    return issue.getRuleKey();
+    if (ruleKey == null) {
+      ruleKey = issues.string(index, StoredIssues.RULE_KEY);
+    }
+    return ruleKey;
   }
 
   @Override
   public String getRuleName() {
-    throw new UnsupportedOperationException();
+    return issues.string(index, StoredIssues.RULE_NAME);
   }
 
   @Nullable
   @Override
   public String getServerIssueKey() {
-    return !StringUtils.isEmpty(issue.getServerIssueKey()) ? issue.getServerIssueKey() : null;
+    String serverIssueKey = issues.string(index, StoredIssues.SERVER_ISSUE_KEY);
+    return !StringUtils.isEmpty(serverIssueKey) ? serverIssueKey : null;
   }
 
   @Nullable
   @Override
   public Long getCreationDate() {
-    return issue.getCreationDate() != 0 ? issue.getCreationDate() : null;
+    long creationDate = issues.creationDate(index);
+    return creationDate != 0 ? creationDate : null;
   }
 
   @Override
   public boolean isResolved() {
-    return issue.getResolved();
+    return issues.resolved(index);
   }
 
   @Override
   public String getAssignee() {
-    return issue.getAssignee();
+    return issues.string(index, StoredIssues.ASSIGNEE);
   }
 
   @Override
   public String getSeverity() {
-    return issue.getSeverity();
+    return issues.string(index, StoredIssues.SEVERITY);
   }
 
   @Override
   public String getRawSeverity() {
-    throw new UnsupportedOperationException();
+    String rawSeverity = issues.string(index, StoredIssues.RAW_SEVERITY);
+    return !rawSeverity.isEmpty() ? rawSeverity : getSeverity();
   }
 
   @Override
   public String getType() {
-    return issue.getType();
+    return issues.string(index, StoredIssues.TYPE);
   }
 
   @Override
   public String getRawType() {
-    throw new UnsupportedOperationException();
+    String rawType = issues.string(index, StoredIssues.RAW_TYPE);
+    return !rawType.isEmpty() ? rawType : getType();
   }
 
   @Override
   public TextRange getTextRange() {
-    throw new UnsupportedOperationException();
+    TextRange textRange = issues.textRange(index);
+    return textRange != null ? textRange : TextRange.get(getLine());
   }
 
   @Override
   public List<Flow> getFlows() {
-    throw new UnsupportedOperationException();
+    return FlowCodec.decode(issues.string(index, StoredIssues.FLOWS));
   }
 }
@@ -25,8 +25,6 @@ import org.sonarlint.eclipse.core.internal.markers.TextRange;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue;
 import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
 
-import static org.sonarlint.eclipse.core.internal.tracking.DigestUtils.digest;
-
 public class RawIssueTrackable implements Trackable {
 
   private final Issue issue;
@@ -36,14 +34,24 @@ public class RawIssueTrackable implements Trackable {
   private Long markerId;
 
   public RawIssueTrackable(Issue issue) {
-    this(issue, null, null, null);
+    this(issue, null, (Integer) null, null);
   }
 
   public RawIssueTrackable(Issue issue, @Nullable TextRange textRange, @Nullable String textRangeContent, @Nullable String lineContent) {
+    this(issue, textRange,
+      textRangeContent != null ? ContentHasher.checksum(textRangeContent) : null,
+      lineContent != null ? ContentHasher.checksum(lineContent) : null);
+  }
+
+  /**
+   * @param textRangeHash checksum of the text range content, as computed by {@link ContentHasher}
+   * @param lineHash checksum of the line content, as computed by {@link ContentHasher}
+   */
+  public RawIssueTrackable(Issue issue, @Nullable TextRange textRange, @Nullable Integer textRangeHash, @Nullable Integer lineHash) {
     this.issue = issue;
     this.textRange = textRange;
-    this.textRangeHash = textRangeContent != null ? checksum(textRangeContent) : null;
-    this.lineHash = lineContent != null ? checksum(lineContent) : null;
+    this.textRangeHash = textRangeHash;
+    this.lineHash = lineHash;
   }
 
   @Override
@@ -56,10 +64,6 @@ public class RawIssueTrackable implements Trackable {
     this.markerId = id;
   }
 
-  private static int checksum(String content) {
-    return digest(content).hashCode();
-  }
-
   @Nullable
   @Override
   public Integer getLine() {
@@ -0,0 +1,46 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * An issue read from the {@link IssueStore} at startup, displayed until the file is analyzed again.
+ */
+public class RestoredTrackable extends WrappedTrackable {
+
+  // Markers of a previous session are not persisted, so the stored marker id can't be reused
+  private Long markerId;
+
+  public RestoredTrackable(Trackable trackable) {
+    super(trackable);
+  }
+
+  @Nullable
+  @Override
+  public Long getMarkerId() {
+    return markerId;
+  }
+
+  @Override
+  public void setMarkerId(@Nullable Long id) {
+    this.markerId = id;
+  }
+}
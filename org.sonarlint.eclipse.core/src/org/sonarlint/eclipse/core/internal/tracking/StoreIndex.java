@@ -28,4 +28,9 @@ interface StoreIndex<T> {
   void save(T key, Path path);
 
   void delete(T key);
+
+  /**
+   * Forget all entries, including persisted ones.
+   */
+  void clear();
 }
@@ -0,0 +1,320 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.internal.markers.TextRange;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint.Issues;
+import org.sonarlint.eclipse.core.internal.proto.Sonarlint.Issues.Issue;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Read-only view of the serialized issues of a file, as saved in the {@link IssueStore}.
+ * <p>
+ * Instead of building a {@link Issues} message, a single pass over the bytes records numeric fields and the positions of
+ * string fields in primitive arrays. Strings are only decoded when asked for, and the {@link Trackable} of an issue is only
+ * created when it is accessed. Matching a few issues against thousands of stored ones thus allocates little more than the
+ * stored bytes.
+ */
+public class StoredIssues extends AbstractList<Trackable> {
+
+  static final int SERVER_ISSUE_KEY = 0;
+  static final int RULE_KEY = 1;
+  static final int MESSAGE = 2;
+  static final int ASSIGNEE = 3;
+  static final int SEVERITY = 4;
+  static final int TYPE = 5;
+  static final int RULE_NAME = 6;
+  static final int FLOWS = 7;
+  static final int RAW_SEVERITY = 8;
+  static final int RAW_TYPE = 9;
+  private static final int STRING_FIELDS = 10;
+
+  private static final int START_LINE = 0;
+  private static final int START_LINE_OFFSET = 1;
+  private static final int END_LINE = 2;
+  private static final int END_LINE_OFFSET = 3;
+  private static final int TEXT_RANGE_FIELDS = 4;
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int ABSENT = -1;
+
+  private final byte[] data;
+  private int size;
+  private int[] lines;
+  private int[] checksums;
+  private long[] creationDates;
+  private long[] markerIds;
+  private boolean[] resolved;
+  private int[] textRanges;
+  private int[] textRangeHashes;
+  private int[] stringOffsets;
+  private int[] stringLengths;
+  private ProtobufIssueTrackable[] trackables;
+
+  private StoredIssues(byte[] data) {
+    this.data = data;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * @param data bytes of a serialized {@link Issues} message, not copied so they must not be modified afterwards
+   */
+  public static StoredIssues parse(byte[] data) throws IOException {
+    StoredIssues issues = new StoredIssues(data);
+    issues.parse();
+    return issues;
+  }
+
+  static StoredIssues of(Issue issue) {
+    try {
+      return parse(Issues.newBuilder().setVersion(IssueStore.FORMAT_VERSION).addIssue(issue).build().toByteArray());
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to read issue", e);
+    }
+  }
+
+  private void parse() throws IOException {
+    CodedInputStream input = CodedInputStream.newInstance(data);
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      if (is(tag, Issues.ISSUE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+        int length = input.readRawVarint32();
+        int oldLimit = input.pushLimit(length);
+        parseIssue(input);
+        input.popLimit(oldLimit);
+      } else {
+        input.skipField(tag);
+      }
+    }
+    trackables = new ProtobufIssueTrackable[size];
+  }
+
+  private void parseIssue(CodedInputStream input) throws IOException {
+    if (size == lines.length) {
+      allocate(size * 2);
+    }
+    int index = size;
+    Arrays.fill(stringOffsets, index * STRING_FIELDS, (index + 1) * STRING_FIELDS, ABSENT);
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      int fieldNumber = WireFormat.getTagFieldNumber(tag);
+      int wireType = WireFormat.getTagWireType(tag);
+      if (wireType == WireFormat.WIRETYPE_VARINT && parseNumber(input, index, fieldNumber)) {
+        continue;
+      }
+      if (is(tag, Issue.TEXTRANGE_FIELD_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED)) {
+        int length = input.readRawVarint32();
+        int oldLimit = input.pushLimit(length);
+        parseTextRange(input, index);
+        input.popLimit(oldLimit);
+        continue;
+      }
+      if (wireType == WireFormat.WIRETYPE_LENGTH_DELIMITED && parseString(input, index, fieldNumber)) {
+        continue;
+      }
+      input.skipField(tag);
+    }
+    size++;
+  }
+
+  private boolean parseNumber(CodedInputStream input, int index, int fieldNumber) throws IOException {
+    switch (fieldNumber) {
+      case Issue.LINE_FIELD_NUMBER:
+        lines[index] = input.readInt32();
+        return true;
+      case Issue.CHECKSUM_FIELD_NUMBER:
+        checksums[index] = input.readInt32();
+        return true;
+      case Issue.CREATIONDATE_FIELD_NUMBER:
+        creationDates[index] = input.readInt64();
+        return true;
+      case Issue.RESOLVED_FIELD_NUMBER:
+        resolved[index] = input.readBool();
+        return true;
+      case Issue.MARKERID_FIELD_NUMBER:
+        markerIds[index] = input.readInt64();
+        return true;
+      case Issue.TEXTRANGEHASH_FIELD_NUMBER:
+        textRangeHashes[index] = input.readInt32();
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private void parseTextRange(CodedInputStream input, int index) throws IOException {
+    int tag;
+    while ((tag = input.readTag()) != 0) {
+      int textRangeField = WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_VARINT ? textRangeField(WireFormat.getTagFieldNumber(tag)) : ABSENT;
+      if (textRangeField == ABSENT) {
+        input.skipField(tag);
+      } else {
+        textRanges[index * TEXT_RANGE_FIELDS + textRangeField] = input.readInt32();
+      }
+    }
+  }
+
+  private static int textRangeField(int fieldNumber) {
+    switch (fieldNumber) {
+      case Issues.TextRange.STARTLINE_FIELD_NUMBER:
+        return START_LINE;
+      case Issues.TextRange.STARTLINEOFFSET_FIELD_NUMBER:
+        return START_LINE_OFFSET;
+      case Issues.TextRange.ENDLINE_FIELD_NUMBER:
+        return END_LINE;
+      case Issues.TextRange.ENDLINEOFFSET_FIELD_NUMBER:
+        return END_LINE_OFFSET;
+      default:
+        return ABSENT;
+    }
+  }
+
+  private boolean parseString(CodedInputStream input, int index, int fieldNumber) throws IOException {
+    int stringField = stringField(fieldNumber);
+    if (stringField == ABSENT) {
+      return false;
+    }
+    int length = input.readRawVarint32();
+    int slot = index * STRING_FIELDS + stringField;
+    stringOffsets[slot] = input.getTotalBytesRead();
+    stringLengths[slot] = length;
+    input.skipRawBytes(length);
+    return true;
+  }
+
+  private static int stringField(int fieldNumber) {
+    switch (fieldNumber) {
+      case Issue.SERVERISSUEKEY_FIELD_NUMBER:
+        return SERVER_ISSUE_KEY;
+      case Issue.RULEKEY_FIELD_NUMBER:
+        return RULE_KEY;
+      case Issue.MESSAGE_FIELD_NUMBER:
+        return MESSAGE;
+      case Issue.ASSIGNEE_FIELD_NUMBER:
+        return ASSIGNEE;
+      case Issue.SEVERITY_FIELD_NUMBER:
+        return SEVERITY;
+      case Issue.TYPE_FIELD_NUMBER:
+        return TYPE;
+      case Issue.RULENAME_FIELD_NUMBER:
+        return RULE_NAME;
+      case Issue.FLOWS_FIELD_NUMBER:
+        return FLOWS;
+      case Issue.RAWSEVERITY_FIELD_NUMBER:
+        return RAW_SEVERITY;
+      case Issue.RAWTYPE_FIELD_NUMBER:
+        return RAW_TYPE;
+      default:
+        return ABSENT;
+    }
+  }
+
+  private static boolean is(int tag, int fieldNumber, int wireType) {
+    return WireFormat.getTagFieldNumber(tag) == fieldNumber && WireFormat.getTagWireType(tag) == wireType;
+  }
+
+  private void allocate(int capacity) {
+    lines = lines == null ? new int[capacity] : Arrays.copyOf(lines, capacity);
+    checksums = checksums == null ? new int[capacity] : Arrays.copyOf(checksums, capacity);
+    creationDates = creationDates == null ? new long[capacity] : Arrays.copyOf(creationDates, capacity);
+    markerIds = markerIds == null ? new long[capacity] : Arrays.copyOf(markerIds, capacity);
+    resolved = resolved == null ? new boolean[capacity] : Arrays.copyOf(resolved, capacity);
+    textRanges = textRanges == null ? new int[capacity * TEXT_RANGE_FIELDS] : Arrays.copyOf(textRanges, capacity * TEXT_RANGE_FIELDS);
+    textRangeHashes = textRangeHashes == null ? new int[capacity] : Arrays.copyOf(textRangeHashes, capacity);
+    stringOffsets = stringOffsets == null ? new int[capacity * STRING_FIELDS] : Arrays.copyOf(stringOffsets, capacity * STRING_FIELDS);
+    stringLengths = stringLengths == null ? new int[capacity * STRING_FIELDS] : Arrays.copyOf(stringLengths, capacity * STRING_FIELDS);
+  }
+
+  @Override
+  public Trackable get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    ProtobufIssueTrackable trackable = trackables[index];
+    if (trackable == null) {
+      trackable = new ProtobufIssueTrackable(this, index);
+      trackables[index] = trackable;
+    }
+    return trackable;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  int line(int index) {
+    return lines[index];
+  }
+
+  int checksum(int index) {
+    return checksums[index];
+  }
+
+  long creationDate(int index) {
+    return creationDates[index];
+  }
+
+  long markerId(int index) {
+    return markerIds[index];
+  }
+
+  boolean resolved(int index) {
+    return resolved[index];
+  }
+
+  /**
+   * @return the stored text range, or null if the issue was saved without one
+   */
+  @Nullable
+  TextRange textRange(int index) {
+    int offset = index * TEXT_RANGE_FIELDS;
+    int startLine = textRanges[offset + START_LINE];
+    if (startLine == 0) {
+      return null;
+    }
+    if (textRanges[offset + END_LINE] == 0) {
+      return TextRange.get(startLine);
+    }
+    return TextRange.get(startLine, textRanges[offset + START_LINE_OFFSET], textRanges[offset + END_LINE],
+      textRanges[offset + END_LINE_OFFSET]);
+  }
+
+  int textRangeHash(int index) {
+    return textRangeHashes[index];
+  }
+
+  /**
+   * @return the decoded string field, empty if unset like in protobuf messages
+   */
+  String string(int index, int stringField) {
+    int slot = index * STRING_FIELDS + stringField;
+    int offset = stringOffsets[slot];
+    return offset == ABSENT ? "" : new String(data, offset, stringLengths[slot], UTF_8);
+  }
+
+}
@@ -24,30 +24,61 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.proto.Sonarlint;
 import org.sonarsource.sonarlint.core.client.api.util.FileUtils;
 
-class StringStoreIndex implements StoreIndex<String> {
+/**
+ * Index of the local issue store, kept in memory while the store is open.
+ * Changes are appended to a journal file, and the journal is periodically compacted into the index snapshot.
+ * On load, the journal is replayed on top of the last snapshot.
+ */
+public class StringStoreIndex implements StoreIndex<String> {
   public static final String INDEX_FILENAME = "index.pb";
+  public static final String JOURNAL_FILENAME = "index.journal";
+  public static final int MIN_ENTRIES_BEFORE_COMPACTION = 1000;
+
   private final Path storeBasePath;
   private final Path indexFilePath;
+  private final Path journalFilePath;
+
+  @Nullable
+  private Map<String, String> mappedPathByKey;
+  private int journalSize;
 
   public StringStoreIndex(Path storeBasePath) {
     this.storeBasePath = storeBasePath;
     this.indexFilePath = storeBasePath.resolve(INDEX_FILENAME);
+    this.journalFilePath = storeBasePath.resolve(JOURNAL_FILENAME);
   }
 
   @Override
-  public Collection<String> keys() {
-    return load().keySet();
+  public synchronized Collection<String> keys() {
+    return new ArrayList<>(load().keySet());
   }
 
   private Map<String, String> load() {
+    if (mappedPathByKey == null) {
+      Map<String, String> loaded = new HashMap<>(readSnapshot());
+      boolean corrupted = replayJournal(loaded);
+      mappedPathByKey = loaded;
+      if (corrupted) {
+        compact();
+      }
+    }
+    return mappedPathByKey;
+  }
+
+  private Map<String, String> readSnapshot() {
     if (!indexFilePath.toFile().exists()) {
-      return Collections.emptyMap();
+      return new HashMap<>();
     }
     try (InputStream stream = Files.newInputStream(indexFilePath)) {
       return Sonarlint.StorageIndex.parseFrom(stream).getMappedPathByKeyMap();
@@ -56,28 +87,102 @@ class StringStoreIndex implements StoreIndex<String> {
     }
   }
 
+  /**
+   * @return true if the journal ends with a partially written entry (most likely because of a crash)
+   */
+  private boolean replayJournal(Map<String, String> index) {
+    journalSize = 0;
+    if (!journalFilePath.toFile().exists()) {
+      return false;
+    }
+    try (InputStream stream = Files.newInputStream(journalFilePath)) {
+      Sonarlint.StorageIndexJournalEntry entry;
+      while ((entry = Sonarlint.StorageIndexJournalEntry.parseDelimitedFrom(stream)) != null) {
+        apply(index, entry);
+        journalSize++;
+      }
+      return false;
+    } catch (IOException e) {
+      SonarLintLogger.get().debug("Ignoring truncated entry at the end of the local issue store journal");
+      return true;
+    }
+  }
+
+  private static void apply(Map<String, String> index, Sonarlint.StorageIndexJournalEntry entry) {
+    if (entry.getMappedPath().isEmpty()) {
+      index.remove(entry.getKey());
+    } else {
+      index.put(entry.getKey(), entry.getMappedPath());
+    }
+  }
+
   @Override
-  public void save(String storageKey, Path path) {
+  public synchronized void save(String storageKey, Path path) {
     String relativeMappedPath = storeBasePath.relativize(path).toString();
-    Sonarlint.StorageIndex.Builder builder = Sonarlint.StorageIndex.newBuilder();
-    builder.putAllMappedPathByKey(load());
-    builder.putMappedPathByKey(storageKey, relativeMappedPath);
-    save(builder.build());
+    if (relativeMappedPath.equals(load().get(storageKey))) {
+      // Already indexed, nothing to append
+      return;
+    }
+    mappedPathByKey.put(storageKey, relativeMappedPath);
+    append(Sonarlint.StorageIndexJournalEntry.newBuilder()
+      .setKey(storageKey)
+      .setMappedPath(relativeMappedPath)
+      .build());
   }
 
   @Override
-  public void delete(String storageKey) {
-    Sonarlint.StorageIndex.Builder builder = Sonarlint.StorageIndex.newBuilder();
-    builder.putAllMappedPathByKey(load());
-    builder.removeMappedPathByKey(storageKey);
-    save(builder.build());
+  public synchronized void delete(String storageKey) {
+    if (load().remove(storageKey) == null) {
+      return;
+    }
+    append(Sonarlint.StorageIndexJournalEntry.newBuilder()
+      .setKey(storageKey)
+      .build());
+  }
+
+  @Override
+  public synchronized void clear() {
+    mappedPathByKey = new HashMap<>();
+    journalSize = 0;
+    try {
+      Files.deleteIfExists(journalFilePath);
+      Files.deleteIfExists(indexFilePath);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to clear local issue store index", e);
+    }
   }
 
-  private void save(Sonarlint.StorageIndex index) {
+  private void append(Sonarlint.StorageIndexJournalEntry entry) {
     // In case folder was deleted while Eclipse was live
+    FileUtils.mkdirs(journalFilePath.getParent());
+    try (OutputStream stream = Files.newOutputStream(journalFilePath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+      entry.writeDelimitedTo(stream);
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to write local issue store index", e);
+    }
+    journalSize++;
+    if (journalSize > Math.max(MIN_ENTRIES_BEFORE_COMPACTION, mappedPathByKey.size())) {
+      compact();
+    }
+  }
+
+  /**
+   * Write a new snapshot of the index, then drop the journal. If interrupted between the two, replaying the journal on top of the
+   * new snapshot is harmless.
+   */
+  private void compact() {
     FileUtils.mkdirs(indexFilePath.getParent());
-    try (OutputStream stream = Files.newOutputStream(indexFilePath)) {
-      index.writeTo(stream);
+    Path tmpFilePath = indexFilePath.resolveSibling(INDEX_FILENAME + ".tmp");
+    try {
+      try (OutputStream stream = Files.newOutputStream(tmpFilePath)) {
+        Sonarlint.StorageIndex.newBuilder()
+          .putAllMappedPathByKey(mappedPathByKey)
+          .build()
+          .writeTo(stream);
+      }
+      Files.move(tmpFilePath, indexFilePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      Files.deleteIfExists(journalFilePath);
+      journalSize = 0;
     } catch (IOException e) {
       throw new IllegalStateException("Failed to write local issue store index", e);
     }
@@ -0,0 +1,58 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.tracking;
+
+import java.util.Collection;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.Issue.Flow;
+import org.sonarsource.sonarlint.core.client.api.common.analysis.IssueLocation;
+
+/**
+ * Rough estimation of the heap retained by the issues of a file. Only meant to compare entries of {@link PersistentIssueTrackerCache}
+ * between them, not to be accurate.
+ */
+public class TrackablesWeigher {
+
+  private static final int ENTRY_OVERHEAD = 96;
+  private static final int TRACKABLE_OVERHEAD = 320;
+  private static final int LOCATION_OVERHEAD = 120;
+  private static final int STRING_OVERHEAD = 40;
+
+  private TrackablesWeigher() {
+    // utility class, forbidden constructor
+  }
+
+  public static long weigh(String file, Collection<Trackable> trackables) {
+    long weight = ENTRY_OVERHEAD + weigh(file);
+    for (Trackable trackable : trackables) {
+      weight += TRACKABLE_OVERHEAD + weigh(trackable.getMessage());
+      for (Flow flow : trackable.getFlows()) {
+        for (IssueLocation location : flow.locations()) {
+          weight += LOCATION_OVERHEAD + weigh(location.getMessage());
+        }
+      }
+    }
+    return weight;
+  }
+
+  private static long weigh(@Nullable String value) {
+    return value != null ? (STRING_OVERHEAD + 2L * value.length()) : 0;
+  }
+}
@@ -19,13 +19,8 @@
  */
 package org.sonarlint.eclipse.core.internal.tracking;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.function.Function;
 import org.eclipse.jdt.annotation.Nullable;
 import org.sonarlint.eclipse.core.internal.utils.StringUtils;
 
@@ -33,393 +28,262 @@ public class Tracker<RAW extends Trackable, BASE extends Trackable> {
 
   public Tracking<RAW, BASE> trackRaw(Input<RAW> rawIssues, Input<BASE> localStorage) {
     Tracking<RAW, BASE> tracking = new Tracking<>(rawIssues, localStorage);
+    SearchIndex index = new SearchIndex(tracking.baseCount());
 
     // Raw issues don't have server issue key
 
     // 1. match issues with same rule, same line and same text range hash, but not necessarily with same message
-    match(tracking, LineAndTextRangeHashKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_AND_TEXT_RANGE_HASH);
 
     // 2. match issues with same rule, same message and same text range hash
-    match(tracking, TextRangeHashAndMessageKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.TEXT_RANGE_HASH_AND_MESSAGE);
 
     // 3. match issues with same rule, same line and same message
-    match(tracking, LineAndMessageKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_AND_MESSAGE);
 
     // 4. match issues with same rule and same text range hash but different line and different message.
     // See SONAR-2812
-    match(tracking, TextRangeHashKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.TEXT_RANGE_HASH);
 
     // 5. match issues with same rule, same line and same line hash
-    match(tracking, LineAndLineHashKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_AND_LINE_HASH);
 
     // 6. match issues with same rule and same same line hash
-    match(tracking, LineHashKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_HASH);
 
     return tracking;
   }
 
   public Tracking<RAW, BASE> trackServer(Input<RAW> trackedLocally, Input<BASE> serverIssue) {
     Tracking<RAW, BASE> tracking = new Tracking<>(trackedLocally, serverIssue);
+    SearchIndex index = new SearchIndex(tracking.baseCount());
 
     // ConnectedEngineFacade issues don't have text range hash
     // 1. match issues with same server issue key
-    match(tracking, ServerIssueSearchKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.SERVER_ISSUE_KEY);
 
     // 2. match issues with same rule, same line and same message
-    match(tracking, LineAndMessageKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_AND_MESSAGE);
 
     // 3. match issues with same rule, same line and same line hash
-    match(tracking, LineAndLineHashKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_AND_LINE_HASH);
 
     // 4. match issues with same rule and same same line hash
-    match(tracking, LineHashKeyFactory.INSTANCE);
+    match(tracking, index, SearchKey.LINE_HASH);
 
     return tracking;
   }
 
-  private void match(Tracking<RAW, BASE> tracking, SearchKeyFactory factory) {
+  private void match(Tracking<RAW, BASE> tracking, SearchIndex index, SearchKey key) {
     if (tracking.isComplete()) {
       return;
     }
 
-    Map<SearchKey, List<BASE>> baseSearch = new HashMap<>();
-    for (BASE base : tracking.getUnmatchedBases()) {
-      SearchKey searchKey = factory.apply(base);
-      if (!baseSearch.containsKey(searchKey)) {
-        baseSearch.put(searchKey, new ArrayList<>());
+    index.clear();
+    for (int b = 0; b < tracking.baseCount(); b++) {
+      if (!tracking.isBaseMatched(b) && key.isSearchable(tracking.base(b))) {
+        index.add(key.hash(tracking.base(b)), b);
       }
-      baseSearch.get(searchKey).add(base);
     }
 
-    for (RAW raw : tracking.getUnmatchedRaws()) {
-      SearchKey rawKey = factory.apply(raw);
-      Collection<BASE> bases = baseSearch.get(rawKey);
-      if (bases != null && !bases.isEmpty()) {
-        // TODO taking the first one. Could be improved if there are more than 2 issues on the same line.
-        // Message could be checked to take the best one.
-        BASE match = bases.iterator().next();
-        tracking.match(raw, match);
-        baseSearch.get(rawKey).remove(match);
+    for (int r = 0; r < tracking.rawCount(); r++) {
+      if (tracking.isRawMatched(r)) {
+        continue;
       }
-    }
-  }
-
-  private interface SearchKey {
-  }
-
-  @FunctionalInterface
-  private interface SearchKeyFactory extends Function<Trackable, SearchKey> {
-    @Override
-    SearchKey apply(Trackable trackable);
-  }
-
-  private static class LineAndTextRangeHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer textRangeHash;
-    private final Integer line;
-
-    LineAndTextRangeHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.line = trackable.getLine();
-      this.textRangeHash = trackable.getTextRangeHash();
-    }
-
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+      RAW raw = tracking.raw(r);
+      if (!key.isSearchable(raw)) {
+        continue;
       }
-      if (o == null) {
-        return false;
+      // Bases sharing the same hash are chained in insertion order.
+      // TODO taking the first one. Could be improved if there are more than 2 issues on the same line.
+      // Message could be checked to take the best one.
+      for (int b = index.first(key.hash(raw)); b >= 0; b = index.next(b)) {
+        if (!tracking.isBaseMatched(b) && key.matches(raw, tracking.base(b))) {
+          tracking.match(r, b);
+          break;
+        }
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      LineAndTextRangeHashKey that = (LineAndTextRangeHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && Objects.equals(textRangeHash, that.textRangeHash)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (textRangeHash != null ? textRangeHash.hashCode() : 0);
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private enum LineAndTextRangeHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineAndTextRangeHashKey(t);
     }
   }
 
-  private static class LineAndLineHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer line;
-    private final Integer lineHash;
-
-    LineAndLineHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.line = trackable.getLine();
-      this.lineHash = trackable.getLineHash();
-    }
-
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+  /**
+   * Criteria used by a matching pass. The hash is only used to find candidates, that are then compared with {@link #matches(Trackable, Trackable)}.
+   */
+  private enum SearchKey {
+    LINE_AND_TEXT_RANGE_HASH {
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getRuleKey().hashCode(), hash(t.getLine()), hash(t.getTextRangeHash()));
       }
-      if (o == null) {
-        return false;
+
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        // start with most discriminant field
+        return Objects.equals(raw.getLine(), base.getLine())
+          && Objects.equals(raw.getTextRangeHash(), base.getTextRangeHash())
+          && raw.getRuleKey().equals(base.getRuleKey());
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
+    },
+    LINE_AND_LINE_HASH {
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getRuleKey().hashCode(), hash(t.getLine()), hash(t.getLineHash()));
       }
-      LineAndLineHashKey that = (LineAndLineHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && Objects.equals(lineHash, that.lineHash)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (lineHash != null ? lineHash.hashCode() : 0);
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private enum LineAndLineHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineAndLineHashKey(t);
-    }
-  }
-
-  private static class LineHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer lineHash;
 
-    LineHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.lineHash = trackable.getLineHash();
-    }
-
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (o == null) {
-        return false;
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        return Objects.equals(raw.getLine(), base.getLine())
+          && Objects.equals(raw.getLineHash(), base.getLineHash())
+          && raw.getRuleKey().equals(base.getRuleKey());
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
+    },
+    LINE_HASH {
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getRuleKey().hashCode(), hash(t.getLineHash()), 0);
       }
-      LineHashKey that = (LineHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(lineHash, that.lineHash)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (lineHash != null ? lineHash.hashCode() : 0);
-      return result;
-    }
-  }
-
-  private enum LineHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineHashKey(t);
-    }
-  }
-
-  private static class TextRangeHashAndMessageKey implements SearchKey {
-    private final String ruleKey;
-    private final String message;
-    private final Integer textRangeHash;
-
-    TextRangeHashAndMessageKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.message = trackable.getMessage();
-      this.textRangeHash = trackable.getTextRangeHash();
-    }
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        return Objects.equals(raw.getLineHash(), base.getLineHash())
+          && raw.getRuleKey().equals(base.getRuleKey());
       }
-      if (o == null) {
-        return false;
+    },
+    TEXT_RANGE_HASH_AND_MESSAGE {
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getRuleKey().hashCode(), t.getMessage().hashCode(), hash(t.getTextRangeHash()));
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      TextRangeHashAndMessageKey that = (TextRangeHashAndMessageKey) o;
-      // start with most discriminant field
-      return Objects.equals(textRangeHash, that.textRangeHash)
-        && message.equals(that.message)
-        && ruleKey.equals(that.ruleKey);
-    }
-
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + message.hashCode();
-      result = 31 * result + (textRangeHash != null ? textRangeHash.hashCode() : 0);
-      return result;
-    }
-  }
 
-  private enum TextRangeHashAndMessageKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new TextRangeHashAndMessageKey(t);
-    }
-  }
-
-  private static class LineAndMessageKey implements SearchKey {
-    private final String ruleKey;
-    private final String message;
-    private final Integer line;
-
-    LineAndMessageKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.message = trackable.getMessage();
-      this.line = trackable.getLine();
-    }
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        return Objects.equals(raw.getTextRangeHash(), base.getTextRangeHash())
+          && raw.getMessage().equals(base.getMessage())
+          && raw.getRuleKey().equals(base.getRuleKey());
+      }
+    },
+    LINE_AND_MESSAGE {
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getRuleKey().hashCode(), t.getMessage().hashCode(), hash(t.getLine()));
+      }
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        return Objects.equals(raw.getLine(), base.getLine())
+          && raw.getMessage().equals(base.getMessage())
+          && raw.getRuleKey().equals(base.getRuleKey());
       }
-      if (o == null) {
-        return false;
+    },
+    TEXT_RANGE_HASH {
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getRuleKey().hashCode(), hash(t.getTextRangeHash()), 0);
       }
-      if (this.getClass() != o.getClass()) {
-        return false;
+
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        return Objects.equals(raw.getTextRangeHash(), base.getTextRangeHash())
+          && raw.getRuleKey().equals(base.getRuleKey());
+      }
+    },
+    SERVER_ISSUE_KEY {
+      @Override
+      boolean isSearchable(Trackable t) {
+        return !StringUtils.isBlank(t.getServerIssueKey());
       }
-      LineAndMessageKey that = (LineAndMessageKey) o;
-      // start with most discriminant field
-      return Objects.equals(line, that.line)
-        && message.equals(that.message)
-        && ruleKey.equals(that.ruleKey);
-    }
 
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + message.hashCode();
-      result = 31 * result + (line != null ? line.hashCode() : 0);
-      return result;
-    }
-  }
+      @Override
+      long hash(Trackable t) {
+        return combine(t.getServerIssueKey().hashCode(), 0, 0);
+      }
 
-  private enum LineAndMessageKeyFactory implements SearchKeyFactory {
-    INSTANCE;
+      @Override
+      boolean matches(Trackable raw, Trackable base) {
+        return raw.getServerIssueKey().equals(base.getServerIssueKey());
+      }
+    };
 
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new LineAndMessageKey(t);
+    /**
+     * Trackables that are not searchable never match any other trackable.
+     */
+    boolean isSearchable(Trackable t) {
+      return true;
     }
-  }
 
-  private static class TextRangeHashKey implements SearchKey {
-    private final String ruleKey;
-    private final Integer textRangeHash;
+    abstract long hash(Trackable t);
 
-    TextRangeHashKey(Trackable trackable) {
-      this.ruleKey = trackable.getRuleKey();
-      this.textRangeHash = trackable.getTextRangeHash();
-    }
+    abstract boolean matches(Trackable raw, Trackable base);
 
-    @Override
-    public boolean equals(@Nullable Object o) {
-      if (this == o) {
-        return true;
-      }
-      if (o == null) {
-        return false;
-      }
-      if (this.getClass() != o.getClass()) {
-        return false;
-      }
-      TextRangeHashKey that = (TextRangeHashKey) o;
-      // start with most discriminant field
-      return Objects.equals(textRangeHash, that.textRangeHash)
-        && ruleKey.equals(that.ruleKey);
+    private static int hash(@Nullable Integer value) {
+      return value != null ? value : 0;
     }
 
-    @Override
-    public int hashCode() {
-      int result = ruleKey.hashCode();
-      result = 31 * result + (textRangeHash != null ? textRangeHash.hashCode() : 0);
-      return result;
+    private static long combine(int a, int b, int c) {
+      long h = ((long) a << 32) ^ (b & 0xFFFFFFFFL);
+      h = h * 0x9E3779B97F4A7C15L + c;
+      // murmur3 finalizer, to spread bits before masking
+      h ^= h >>> 33;
+      h *= 0xFF51AFD7ED558CCDL;
+      h ^= h >>> 33;
+      h *= 0xC4CEB9FE1A85EC53L;
+      h ^= h >>> 33;
+      return h;
     }
   }
 
-  private enum TextRangeHashKeyFactory implements SearchKeyFactory {
-    INSTANCE;
-
-    @Override
-    public SearchKey apply(Trackable t) {
-      return new TextRangeHashKey(t);
+  /**
+   * Open addressing hash table from a search key hash to the chain of base indexes having this hash.
+   * Allocated once per tracking and reused by all passes.
+   */
+  private static final class SearchIndex {
+    private static final int EMPTY = -1;
+
+    private final long[] slotHashes;
+    private final int[] slotHeads;
+    private final int[] slotTails;
+    private final int[] nextBase;
+    private final int mask;
+
+    SearchIndex(int baseCount) {
+      int tableSize = Integer.highestOneBit(Math.max(2, baseCount) * 2 - 1) << 1;
+      this.slotHashes = new long[tableSize];
+      this.slotHeads = new int[tableSize];
+      this.slotTails = new int[tableSize];
+      this.nextBase = new int[baseCount];
+      this.mask = tableSize - 1;
     }
-  }
-
-  private static class ServerIssueSearchKey implements SearchKey {
-    private final String serverIssueKey;
 
-    ServerIssueSearchKey(Trackable trackable) {
-      serverIssueKey = trackable.getServerIssueKey();
+    void clear() {
+      Arrays.fill(slotHeads, EMPTY);
     }
 
-    @Override
-    public boolean equals(Object o) {
-      if (this == o) {
-        return true;
+    private int slot(long hash) {
+      int slot = (int) (hash ^ (hash >>> 32)) & mask;
+      while (slotHeads[slot] != EMPTY && slotHashes[slot] != hash) {
+        slot = (slot + 1) & mask;
       }
-      if (o == null || getClass() != o.getClass()) {
-        return false;
-      }
-
-      ServerIssueSearchKey that = (ServerIssueSearchKey) o;
-
-      return !StringUtils.isBlank(serverIssueKey) && !StringUtils.isBlank(that.serverIssueKey) && serverIssueKey.equals(that.serverIssueKey);
+      return slot;
     }
 
-    @Override
-    public int hashCode() {
-      return serverIssueKey != null ? serverIssueKey.hashCode() : 0;
+    void add(long hash, int base) {
+      int slot = slot(hash);
+      nextBase[base] = EMPTY;
+      if (slotHeads[slot] == EMPTY) {
+        slotHashes[slot] = hash;
+        slotHeads[slot] = base;
+      } else {
+        nextBase[slotTails[slot]] = base;
+      }
+      slotTails[slot] = base;
     }
-  }
 
-  private enum ServerIssueSearchKeyFactory implements SearchKeyFactory {
-    INSTANCE;
+    int first(long hash) {
+      return slotHeads[slot(hash)];
+    }
 
-    @Override
-    public SearchKey apply(Trackable trackable) {
-      return new ServerIssueSearchKey(trackable);
+    int next(int base) {
+      return nextBase[base];
     }
   }
 }
@@ -24,6 +24,7 @@ import java.util.Collection;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
 public class Tracking<RAW extends Trackable, BASE extends Trackable> {
 
@@ -31,26 +32,36 @@ public class Tracking<RAW extends Trackable, BASE extends Trackable> {
    * Matched issues -> a raw issue is associated to a base issue
    */
   private final IdentityHashMap<RAW, BASE> rawToBase = new IdentityHashMap<>();
-  private final IdentityHashMap<BASE, RAW> baseToRaw = new IdentityHashMap<>();
 
-  private final Collection<RAW> raws;
-  private final Collection<BASE> bases;
+  private final List<RAW> raws;
+  private final List<BASE> bases;
+  private final boolean[] matchedRaws;
+  private final boolean[] matchedBases;
 
   public Tracking(Input<RAW> rawInput, Input<BASE> baseInput) {
-    this.raws = rawInput.get();
-    this.bases = baseInput.get();
+    this.raws = asRandomAccessList(rawInput.get());
+    this.bases = asRandomAccessList(baseInput.get());
+    this.matchedRaws = new boolean[raws.size()];
+    this.matchedBases = new boolean[bases.size()];
+  }
+
+  private static <T> List<T> asRandomAccessList(Collection<T> collection) {
+    if (collection instanceof List && collection instanceof RandomAccess) {
+      return (List<T>) collection;
+    }
+    return new ArrayList<>(collection);
   }
 
   /**
    * Returns an Iterable to be traversed when matching issues. That means
-   * that the traversal does not fail if method {@link #match(Trackable, Trackable)}
+   * that the traversal does not fail if method {@link #match(int, int)}
    * is called.
    */
   public Iterable<RAW> getUnmatchedRaws() {
     List<RAW> result = new ArrayList<>();
-    for (RAW r : raws) {
-      if (!rawToBase.containsKey(r)) {
-        result.add(r);
+    for (int i = 0; i < raws.size(); i++) {
+      if (!matchedRaws[i]) {
+        result.add(raws.get(i));
       }
     }
     return result;
@@ -69,21 +80,42 @@ public class Tracking<RAW extends Trackable, BASE extends Trackable> {
    */
   public Iterable<BASE> getUnmatchedBases() {
     List<BASE> result = new ArrayList<>();
-    for (BASE b : bases) {
-      if (!baseToRaw.containsKey(b)) {
-        result.add(b);
+    for (int i = 0; i < bases.size(); i++) {
+      if (!matchedBases[i]) {
+        result.add(bases.get(i));
       }
     }
     return result;
   }
 
-  boolean containsUnmatchedBase(BASE base) {
-    return !baseToRaw.containsKey(base);
+  int rawCount() {
+    return raws.size();
+  }
+
+  RAW raw(int index) {
+    return raws.get(index);
+  }
+
+  boolean isRawMatched(int index) {
+    return matchedRaws[index];
+  }
+
+  int baseCount() {
+    return bases.size();
+  }
+
+  BASE base(int index) {
+    return bases.get(index);
+  }
+
+  boolean isBaseMatched(int index) {
+    return matchedBases[index];
   }
 
-  void match(RAW raw, BASE base) {
-    rawToBase.put(raw, base);
-    baseToRaw.put(base, raw);
+  void match(int rawIndex, int baseIndex) {
+    matchedRaws[rawIndex] = true;
+    matchedBases[baseIndex] = true;
+    rawToBase.put(raws.get(rawIndex), bases.get(baseIndex));
   }
 
   boolean isComplete() {
@@ -23,45 +23,106 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
+import org.sonarlint.eclipse.core.internal.jobs.FileClassificationCache;
 import org.sonarlint.eclipse.core.internal.jobs.SonarLintMarkerUpdater;
-import org.sonarlint.eclipse.core.internal.jobs.TestFileClassifier;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintGlobalConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.resources.ExclusionItem;
 import org.sonarlint.eclipse.core.internal.resources.ExclusionItem.Type;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
 import org.sonarlint.eclipse.core.resource.ISonarLintProject;
-import org.sonarsource.sonarlint.core.client.api.common.FileExclusions;
 import org.sonarsource.sonarlint.core.client.api.exceptions.SonarLintException;
 
 import static java.util.stream.Collectors.toCollection;
 
 public class FileExclusionsChecker {
-  private FileExclusions projectExclusions;
-  private FileExclusions globalExclusions;
+  // Compiled exclusions are cached until exclusions are changed in preferences
+  private static final Map<String, CachedProjectExclusions> projectExclusionsCache = new ConcurrentHashMap<>();
+  private static final Object globalExclusionsLock = new Object();
+  private static GlobMatcher globalExclusionsCache;
+  private static int globalExclusionsVersion;
+  private static boolean globalExclusionsListenerRegistered;
+
+  private GlobMatcher projectExclusions;
+  private GlobMatcher globalExclusions;
 
   public FileExclusionsChecker(ISonarLintProject project) {
-    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project);
+    projectExclusions = getProjectExclusions(project);
+    globalExclusions = getGlobalExclusions();
+  }
+
+  private static GlobMatcher getGlobalExclusions() {
+    int version;
+    synchronized (globalExclusionsLock) {
+      if (!globalExclusionsListenerRegistered) {
+        globalExclusionsListenerRegistered = true;
+        InstanceScope.INSTANCE.getNode(SonarLintCorePlugin.UI_PLUGIN_ID).addPreferenceChangeListener(event -> {
+          if (SonarLintGlobalConfiguration.PREF_FILE_EXCLUSIONS.equals(event.getKey())) {
+            synchronized (globalExclusionsLock) {
+              globalExclusionsCache = null;
+              globalExclusionsVersion++;
+            }
+          }
+        });
+      }
+      if (globalExclusionsCache != null) {
+        return globalExclusionsCache;
+      }
+      version = globalExclusionsVersion;
+    }
     List<ExclusionItem> globalExclusionItems = SonarLintGlobalConfiguration.getGlobalExclusions();
+    GlobMatcher exclusions = new GlobMatcher(getExclusionsOfType(globalExclusionItems, Type.GLOB));
+    synchronized (globalExclusionsLock) {
+      // Don't cache exclusions that were changed while they were compiled
+      if (version == globalExclusionsVersion) {
+        globalExclusionsCache = exclusions;
+      }
+    }
+    return exclusions;
+  }
+
+  private static GlobMatcher getProjectExclusions(ISonarLintProject project) {
+    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project);
+    CachedProjectExclusions cached = projectExclusionsCache.get(project.getName());
+    // A new configuration snapshot is loaded when preferences of the project are changed
+    if (cached != null && cached.configuration == projectConfiguration) {
+      return cached.exclusions;
+    }
     List<ExclusionItem> projectExclusionItems = projectConfiguration.getFileExclusions();
 
     Set<String> projectFileExclusions = getExclusionsOfType(projectExclusionItems, Type.FILE);
     Set<String> projectDirectoryExclusions = getExclusionsOfType(projectExclusionItems, Type.DIRECTORY);
     Set<String> projectGlobExclusions = getExclusionsOfType(projectExclusionItems, Type.GLOB);
-    Set<String> globalGlobExclusions = getExclusionsOfType(globalExclusionItems, Type.GLOB);
+    GlobMatcher exclusions = new GlobMatcher(projectGlobExclusions, projectFileExclusions, projectDirectoryExclusions);
+    projectExclusionsCache.put(project.getName(), new CachedProjectExclusions(projectConfiguration, exclusions));
+    return exclusions;
+  }
 
-    projectExclusions = new FileExclusions(projectFileExclusions, projectDirectoryExclusions, projectGlobExclusions);
-    globalExclusions = new FileExclusions(globalGlobExclusions);
+  private static class CachedProjectExclusions {
+    private final SonarLintProjectConfiguration configuration;
+    private final GlobMatcher exclusions;
+
+    CachedProjectExclusions(SonarLintProjectConfiguration configuration, GlobMatcher exclusions) {
+      this.configuration = configuration;
+      this.exclusions = exclusions;
+    }
   }
 
   public Collection<ISonarLintFile> filterExcludedFiles(ISonarLintProject project, Collection<ISonarLintFile> files) {
     return filterExcludedFiles(project, files, true);
   }
 
+  /**
+   * Prefer evaluating exclusions of many files at once, since the binding is resolved and server side exclusions are evaluated once per call.
+   * @return a set of files that are not excluded
+   */
   public Collection<ISonarLintFile> filterExcludedFiles(ISonarLintProject project, Collection<ISonarLintFile> files, boolean log) {
     Set<ISonarLintFile> notExcluded = files
       .stream()
@@ -71,10 +132,10 @@ public class FileExclusionsChecker {
     SonarLintCorePlugin.getServersManager()
       .resolveBinding(project)
       .ifPresent(binding -> {
-        TestFileClassifier testFileClassifier = TestFileClassifier.get();
+        FileClassificationCache classifications = SonarLintCorePlugin.getFileClassificationCache();
         try {
           List<ISonarLintFile> excludedByServerSideExclusions = binding.getEngineFacade().getServerFileExclusions(binding.getProjectBinding(), notExcluded,
-            testFileClassifier::isTest);
+            classifications::isTest);
           notExcluded.removeAll(excludedByServerSideExclusions);
           excludedByServerSideExclusions.forEach(file -> {
             notExcluded.remove(file);
@@ -94,12 +155,12 @@ public class FileExclusionsChecker {
   private boolean isExcludedByLocalConfiguration(ISonarLintFile file, boolean log) {
     String relativePath = file.getProjectRelativePath();
 
-    if (globalExclusions.test(relativePath)) {
+    if (globalExclusions.matches(relativePath)) {
       logIfNeeded(file, log, "global");
       return true;
     }
 
-    if (projectExclusions.test(relativePath)) {
+    if (projectExclusions.matches(relativePath)) {
       logIfNeeded(file, log, "project");
       return true;
     }
@@ -114,7 +175,7 @@ public class FileExclusionsChecker {
   }
 
   public static void addProjectFileExclusion(ISonarLintProject project, ISonarLintFile file, ExclusionItem exclusion) {
-    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project);
+    SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfigForUpdate(project);
     projectConfiguration.getFileExclusions().add(exclusion);
     SonarLintCorePlugin.saveConfig(project, projectConfiguration);
     SonarLintMarkerUpdater.clearMarkers(file);
@@ -0,0 +1,320 @@
+/*
+ * SonarLint for Eclipse
+ * Copyright (C) 2015-2020 SonarSource SA
+ * sonarlint@sonarsource.com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonarlint.eclipse.core.internal.utils;
+
+import java.io.File;
+import java.nio.file.FileSystems;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.eclipse.jdt.annotation.Nullable;
+import org.sonarlint.eclipse.core.SonarLintLogger;
+
+/**
+ * Match project relative paths against many glob patterns at once, with the same semantic than {@link FileSystems#getDefault()} glob
+ * {@link PathMatcher}s.
+ * <p>
+ * Patterns are split on '/' and merged in a tree of path segments, so that a path is matched segment by segment against all patterns
+ * together, instead of being matched against each pattern. The segments matched by the directory of a file are remembered, so that files of
+ * the same directory only have their name to be matched.
+ * <p>
+ * Patterns that can't be split in segments (using '\', '/' in a group, '**' in the middle of a segment, ...) are matched separately.
+ */
+public class GlobMatcher {
+
+  private static final String DOUBLE_STAR = "**";
+  private static final int MAX_REMEMBERED_DIRECTORIES = 10_000;
+  // Like glob path matchers of the default file system
+  private static final boolean CASE_INSENSITIVE = File.separatorChar == '\\';
+
+  private final Node root = new Node();
+  private final List<Node> rootStates = Collections.singletonList(root);
+  private final List<PathMatcher> separateMatchers = new ArrayList<>();
+  private final Map<String, List<Node>> statesByDirectory = new ConcurrentHashMap<>();
+
+  public GlobMatcher(Collection<String> globs) {
+    this(globs, Collections.emptyList(), Collections.emptyList());
+  }
+
+  /**
+   * @param files paths of files to match exactly
+   * @param directories paths of directories whose content is matched
+   */
+  public GlobMatcher(Collection<String> globs, Collection<String> files, Collection<String> directories) {
+    globs.forEach(this::addGlob);
+    files.forEach(file -> addPath(file, false));
+    directories.forEach(directory -> addPath(directory, true));
+  }
+
+  public boolean matches(String relativePath) {
+    if (!separateMatchers.isEmpty()) {
+      Path path = Paths.get(relativePath);
+      for (PathMatcher matcher : separateMatchers) {
+        if (matcher.matches(path)) {
+          return true;
+        }
+      }
+    }
+    if (root.isLeaf()) {
+      return false;
+    }
+    int lastSlash = relativePath.lastIndexOf('/');
+    List<Node> states = lastSlash < 0 ? rootStates : statesOf(relativePath.substring(0, lastSlash));
+    if (states.isEmpty()) {
+      return false;
+    }
+    for (Node state : step(states, relativePath.substring(lastSlash + 1))) {
+      if (state.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private List<Node> statesOf(String directory) {
+    List<Node> states = statesByDirectory.get(directory);
+    if (states == null) {
+      int lastSlash = directory.lastIndexOf('/');
+      List<Node> parentStates = lastSlash < 0 ? rootStates : statesOf(directory.substring(0, lastSlash));
+      states = parentStates.isEmpty() ? Collections.emptyList() : step(parentStates, directory.substring(lastSlash + 1));
+      if (statesByDirectory.size() >= MAX_REMEMBERED_DIRECTORIES) {
+        statesByDirectory.clear();
+      }
+      statesByDirectory.put(directory, states);
+    }
+    return states;
+  }
+
+  private static List<Node> step(List<Node> states, String segment) {
+    String key = key(segment);
+    List<Node> next = new ArrayList<>(2);
+    for (Node state : states) {
+      addIfAbsent(next, state.literalChildren.get(key));
+      for (WildcardSegment wildcard : state.wildcardChildren.values()) {
+        if (wildcard.matches(segment)) {
+          addIfAbsent(next, wildcard.node);
+        }
+      }
+      addIfAbsent(next, state.doubleStarChild);
+      if (state.matchesAnySegment) {
+        addIfAbsent(next, state);
+      }
+    }
+    return next;
+  }
+
+  private static void addIfAbsent(List<Node> states, @Nullable Node state) {
+    if (state != null && !states.contains(state)) {
+      states.add(state);
+    }
+  }
+
+  private void addGlob(String glob) {
+    if (glob.isEmpty()) {
+      // Only matches the empty path
+      return;
+    }
+    PathMatcher matcher;
+    try {
+      matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    } catch (IllegalArgumentException e) {
+      SonarLintLogger.get().error("Invalid glob pattern: " + glob, e);
+      return;
+    }
+    List<String> segments = splitInSegments(glob);
+    if (segments == null) {
+      separateMatchers.add(matcher);
+      return;
+    }
+    Node node = root;
+    for (String segment : segments) {
+      if (DOUBLE_STAR.equals(segment)) {
+        // Between separators, '**' matches one or more segments
+        node = node.doubleStarChild();
+      } else if (isLiteral(segment)) {
+        node = node.literalChild(key(segment));
+      } else {
+        node = node.wildcardChild(segment);
+      }
+    }
+    node.terminal = true;
+  }
+
+  private void addPath(String path, boolean isDirectory) {
+    Node node = root;
+    boolean empty = true;
+    for (String segment : path.split("/")) {
+      if (!segment.isEmpty()) {
+        node = node.literalChild(key(segment));
+        empty = false;
+      }
+    }
+    if (empty) {
+      return;
+    }
+    if (isDirectory) {
+      node = node.doubleStarChild();
+    }
+    node.terminal = true;
+  }
+
+  /**
+   * @return segments of the glob, or null if the glob can't be matched segment by segment
+   */
+  @Nullable
+  private static List<String> splitInSegments(String glob) {
+    if (glob.indexOf('\\') >= 0) {
+      return null;
+    }
+    List<String> segments = new ArrayList<>();
+    int groupDepth = 0;
+    int segmentStart = 0;
+    for (int i = 0; i < glob.length(); i++) {
+      char c = glob.charAt(i);
+      if (c == '{' || c == '[') {
+        groupDepth++;
+      } else if ((c == '}' || c == ']') && groupDepth > 0) {
+        groupDepth--;
+      } else if (c == '/') {
+        if (groupDepth > 0 || !addSegment(segments, glob.substring(segmentStart, i))) {
+          return null;
+        }
+        segmentStart = i + 1;
+      }
+    }
+    if (!addSegment(segments, glob.substring(segmentStart))) {
+      return null;
+    }
+    return segments;
+  }
+
+  private static boolean addSegment(List<String> segments, String segment) {
+    if (segment.isEmpty() || (segment.contains(DOUBLE_STAR) && !DOUBLE_STAR.equals(segment))) {
+      return false;
+    }
+    segments.add(segment);
+    return true;
+  }
+
+  private static boolean isLiteral(String segment) {
+    for (int i = 0; i < segment.length(); i++) {
+      char c = segment.charAt(i);
+      if (c == '*' || c == '?' || c == '[' || c == '{') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String key(String segment) {
+    return CASE_INSENSITIVE ? segment.toLowerCase(Locale.ROOT) : segment;
+  }
+
+  private static class Node {
+    private final Map<String, Node> literalChildren = new HashMap<>();
+    private final Map<String, WildcardSegment> wildcardChildren = new LinkedHashMap<>();
+    @Nullable
+    private Node doubleStarChild;
+    private boolean matchesAnySegment;
+    private boolean terminal;
+
+    Node literalChild(String key) {
+      return literalChildren.computeIfAbsent(key, k -> new Node());
+    }
+
+    Node wildcardChild(String segment) {
+      return wildcardChildren.computeIfAbsent(segment, WildcardSegment::new).node;
+    }
+
+    Node doubleStarChild() {
+      if (doubleStarChild == null) {
+        doubleStarChild = new Node();
+        doubleStarChild.matchesAnySegment = true;
+      }
+      return doubleStarChild;
+    }
+
+    boolean isLeaf() {
+      return literalChildren.isEmpty() && wildcardChildren.isEmpty() && doubleStarChild == null;
+    }
+  }
+
+  private static class WildcardSegment {
+    private final Node node = new Node();
+    @Nullable
+    private final Pattern pattern;
+    @Nullable
+    private final PathMatcher matcher;
+
+    WildcardSegment(String segment) {
+      if (segment.indexOf('[') >= 0 || segment.indexOf('{') >= 0) {
+        // Let the file system deal with character classes and groups, the segment being matched alone
+        this.pattern = null;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + segment);
+      } else {
+        this.pattern = Pattern.compile(toRegex(segment), CASE_INSENSITIVE ? (Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE) : 0);
+        this.matcher = null;
+      }
+    }
+
+    boolean matches(String segment) {
+      if (pattern != null) {
+        return pattern.matcher(segment).matches();
+      }
+      try {
+        return matcher.matches(Paths.get(segment));
+      } catch (InvalidPathException e) {
+        return false;
+      }
+    }
+
+    private static String toRegex(String segment) {
+      StringBuilder regex = new StringBuilder();
+      StringBuilder literal = new StringBuilder();
+      for (int i = 0; i < segment.length(); i++) {
+        char c = segment.charAt(i);
+        if (c == '*' || c == '?') {
+          if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+          }
+          regex.append(c == '*' ? "[^/]*" : "[^/]");
+        } else {
+          literal.append(c);
+        }
+      }
+      if (literal.length() > 0) {
+        regex.append(Pattern.quote(literal.toString()));
+      }
+      return regex.toString();
+    }
+  }
+}
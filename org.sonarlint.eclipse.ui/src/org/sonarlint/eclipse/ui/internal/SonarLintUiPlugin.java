@@ -226,6 +226,9 @@ public class SonarLintUiPlugin extends AbstractUIPlugin {
     public IStatus run(IProgressMonitor monitor) {
       SonarLintLogger.get().info("Starting SonarLint for Eclipse " + SonarLintUtils.getPluginVersion());
 
+      // Display issues found during the previous session while open files are analyzed again
+      JobUtils.restoreIssuesOfOpenFiles(monitor);
+
       checkServersStatus();
 
       JobUtils.scheduleAnalysisOfOpenFiles((ISonarLintProject) null, TriggerType.STARTUP);
@@ -29,6 +29,8 @@ import java.util.Optional;
 import java.util.function.Predicate;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.IJobChangeEvent;
 import org.eclipse.core.runtime.jobs.IJobChangeListener;
 import org.eclipse.core.runtime.jobs.Job;
@@ -43,13 +45,14 @@ import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.texteditor.ITextEditor;
+import org.sonarlint.eclipse.core.SonarLintLogger;
 import org.sonarlint.eclipse.core.internal.SonarLintCorePlugin;
 import org.sonarlint.eclipse.core.internal.TriggerType;
 import org.sonarlint.eclipse.core.internal.adapter.Adapters;
 import org.sonarlint.eclipse.core.internal.engine.connected.IConnectedEngineFacade;
-import org.sonarlint.eclipse.core.internal.jobs.AbstractAnalyzeProjectJob;
 import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest;
 import org.sonarlint.eclipse.core.internal.jobs.AnalyzeProjectRequest.FileWithDocument;
+import org.sonarlint.eclipse.core.internal.jobs.SonarLintMarkerUpdater;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration;
 import org.sonarlint.eclipse.core.internal.preferences.SonarLintProjectConfiguration.EclipseProjectBinding;
 import org.sonarlint.eclipse.core.resource.ISonarLintFile;
@@ -85,7 +88,7 @@ public class JobUtils {
     }
     SonarLintProjectConfiguration projectConfiguration = SonarLintCorePlugin.loadConfig(project);
     if (projectConfiguration.isAutoEnabled()) {
-      AbstractAnalyzeProjectJob.create(request).schedule();
+      SonarLintCorePlugin.getAnalysisScheduler().schedule(request);
     }
   }
 
@@ -93,6 +96,32 @@ public class JobUtils {
     scheduleAnalysisOfOpenFiles(project, triggerType, f -> true);
   }
 
+  /**
+   * Create markers for the issues persisted for open files, flagged as pending re-analysis.
+   * Only done for projects where auto analysis is enabled, since the next analysis is expected to refine them.
+   */
+  public static void restoreIssuesOfOpenFiles(IProgressMonitor monitor) {
+    Map<ISonarLintProject, List<FileWithDocument>> filesByProject = new HashMap<>();
+
+    collectOpenedFiles(null, filesByProject, f -> true);
+
+    List<FileWithDocument> filesToRestore = new ArrayList<>();
+    for (Map.Entry<ISonarLintProject, List<FileWithDocument>> entry : filesByProject.entrySet()) {
+      ISonarLintProject aProject = entry.getKey();
+      if (aProject.isOpen() && SonarLintCorePlugin.loadConfig(aProject).isAutoEnabled()) {
+        filesToRestore.addAll(entry.getValue());
+      }
+    }
+    if (filesToRestore.isEmpty()) {
+      return;
+    }
+    try {
+      SonarLintMarkerUpdater.restorePendingMarkers(filesToRestore, monitor);
+    } catch (CoreException e) {
+      SonarLintLogger.get().error("Unable to restore issues of open files", e);
+    }
+  }
+
   private static void collectOpenedFiles(@Nullable ISonarLintProject project, Map<ISonarLintProject, List<FileWithDocument>> filesByProject,
     Predicate<ISonarLintFile> filter) {
     for (IWorkbenchWindow win : PlatformUI.getWorkbench().getWorkbenchWindows()) {
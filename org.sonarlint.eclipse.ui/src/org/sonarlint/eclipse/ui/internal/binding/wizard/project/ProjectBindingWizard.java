@@ -187,7 +187,7 @@ public class ProjectBindingWizard extends ParentAwareWizard implements INewWizar
     ProjectStorageUpdateJob job = new ProjectStorageUpdateJob(serverId, projectKey);
     model.getEclipseProjects().forEach(p -> {
       boolean changed = false;
-      SonarLintProjectConfiguration projectConfig = SonarLintCorePlugin.loadConfig(p);
+      SonarLintProjectConfiguration projectConfig = SonarLintCorePlugin.loadConfigForUpdate(p);
       String oldServerId = projectConfig.getProjectBinding().map(EclipseProjectBinding::connectionId).orElse(null);
       String oldProjectKey = projectConfig.getProjectBinding().map(EclipseProjectBinding::projectKey).orElse(null);
       if (!Objects.equals(serverId, oldServerId) || !Objects.equals(projectKey, oldProjectKey)) {
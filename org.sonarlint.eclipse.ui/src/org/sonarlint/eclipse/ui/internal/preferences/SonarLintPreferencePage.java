@@ -22,6 +22,7 @@ package org.sonarlint.eclipse.ui.internal.preferences;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.jface.preference.ComboFieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
+import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.preference.StringFieldEditor;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
@@ -57,6 +58,14 @@ public class SonarLintPreferencePage extends FieldEditorPreferencePage implement
       getFieldEditorParent()));
     addField(new StringFieldEditor(SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS,
       Messages.SonarPreferencePage_label_test_file_regexps, getFieldEditorParent()));
+    IntegerFieldEditor issueCacheSize = new IntegerFieldEditor(SonarLintGlobalConfiguration.PREF_ISSUE_CACHE_MAX_SIZE_MB,
+      Messages.SonarPreferencePage_label_issue_cache_size, getFieldEditorParent());
+    issueCacheSize.setValidRange(1, 4096);
+    addField(issueCacheSize);
+    IntegerFieldEditor analysisParallelism = new IntegerFieldEditor(SonarLintGlobalConfiguration.PREF_ANALYSIS_PARALLELISM,
+      Messages.SonarPreferencePage_label_analysis_parallelism, getFieldEditorParent());
+    analysisParallelism.setValidRange(0, 64);
+    addField(analysisParallelism);
   }
 
   @Override
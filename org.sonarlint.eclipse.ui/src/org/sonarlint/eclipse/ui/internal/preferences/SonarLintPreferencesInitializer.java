@@ -36,6 +36,8 @@ public class SonarLintPreferencesInitializer extends AbstractPreferenceInitializ
     node.putInt(SonarLintGlobalConfiguration.PREF_MARKER_SEVERITY, SonarLintGlobalConfiguration.PREF_MARKER_SEVERITY_DEFAULT);
     node.put(SonarLintGlobalConfiguration.PREF_EXTRA_ARGS, SonarLintGlobalConfiguration.PREF_DEFAULT);
     node.put(SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS, SonarLintGlobalConfiguration.PREF_TEST_FILE_REGEXPS_DEFAULT);
+    node.putInt(SonarLintGlobalConfiguration.PREF_ISSUE_CACHE_MAX_SIZE_MB, SonarLintGlobalConfiguration.PREF_ISSUE_CACHE_MAX_SIZE_MB_DEFAULT);
+    node.putInt(SonarLintGlobalConfiguration.PREF_ANALYSIS_PARALLELISM, SonarLintGlobalConfiguration.PREF_ANALYSIS_PARALLELISM_DEFAULT);
   }
 
 }
@@ -281,7 +281,7 @@ public class FileExclusionsPage extends AbstractListPropertyPage implements IWor
   private SonarLintProjectConfiguration getProjectConfig() {
     ISonarLintProject project = getProject();
     if (project != null) {
-      return SonarLintCorePlugin.loadConfig(project);
+      return SonarLintCorePlugin.loadConfigForUpdate(project);
     }
     return null;
   }
@@ -430,7 +430,7 @@ public class SonarLintExtraArgumentsPreferenceAndPropertyPage extends AbstractLi
   private SonarLintProjectConfiguration getProjectConfig() {
     ISonarLintProject project = getProject();
     if (project != null) {
-      return SonarLintCorePlugin.loadConfig(project);
+      return SonarLintCorePlugin.loadConfigForUpdate(project);
     }
     return null;
   }
@@ -67,7 +67,7 @@ public class SonarLintProjectPropertyPage extends PropertyPage {
   }
 
   public SonarLintProjectConfiguration getProjectConfig() {
-    return SonarLintCorePlugin.loadConfig(getProject());
+    return SonarLintCorePlugin.loadConfigForUpdate(getProject());
   }
 
   @Override